@@ -36,15 +36,26 @@
 
 package com.simsilica.event;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.simsilica.util.TimeHistogram;
+import com.simsilica.util.TimeStats;
+
 
 /**
  *  Dispatches events to listeners and provides a way for listeners
@@ -53,26 +64,101 @@ import org.slf4j.LoggerFactory;
  *  <ul>
  *  <li>Type and event objects are separate which means the same event
  *  class can be used for multiple event types.
- *  <li>The event bus is singleton which provides a single central
- *  place for event dispatch and registration.
+ *  <li>There is a singleton event bus which provides a single central
+ *  place for event dispatch and registration.  Separate EventBus instances
+ *  can also be created to keep the events of independent parts of an
+ *  application, like multiple simulations in the same JVM, from contending
+ *  with each other.  A child bus can forward all of its events to a parent.
  *  <li>Listeners can be added with an EventListener interface OR by
  *  using reflective methods (similar to Guava's event bus).
  *  </ul>
  *
+ *  <p>By default, events are delivered on the publishing thread before
+ *  publishEvent() returns.  An event type can instead be bound to a delivery
+ *  channel with bindDelivery() so that its events are queued and delivered
+ *  later, either on an executor or whenever deliverQueued() is called.  Events
+ *  of the same type are always delivered in the order they were published.</p>
+ *
+ *  <p>With setMetricsEnabled(true), the bus also keeps per-type and
+ *  per-listener counts and timings that can be retrieved with getMetrics()
+ *  to find out which listeners are slowing down the publishers.</p>
+ *
  *  @author    Paul Speed
  */
 public class EventBus {
     
     static Logger log = LoggerFactory.getLogger(EventBus.class);
 
+    /**
+     *  Determines what publishEvent() does when an event type's delivery
+     *  channel is full.
+     */
+    public enum BackPressure {
+        /**
+         *  The publishing thread waits until there is room in the queue.
+         *  If the channel has no executor or the publisher is the thread
+         *  delivering the channel's events then nothing else would make
+         *  room, so the oldest queued events are delivered on the publishing
+         *  thread instead.
+         */
+        Block,
+
+        /**
+         *  The new event is dropped.
+         */
+        DropNewest,
+
+        /**
+         *  The oldest queued event is dropped to make room for the new one.
+         */
+        DropOldest
+    }
+
     private static final EventBus instance = new EventBus();
 
-    private final ListenerList all = new ListenerList();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     *  The invokers for listener methods, shared by all listeners of the
+     *  same class.  Kept with the listener's class so that they don't keep
+     *  the class or its class loader from being unloaded.
+     */
+    private static final ClassValue<Map<Method, MethodInvoker>> invokers = new ClassValue<Map<Method, MethodInvoker>>() {
+            @Override
+            protected Map<Method, MethodInvoker> computeValue( Class<?> type ) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+    private final ListenerList all = new ListenerList(null);
     private final Map<EventType,ListenerList> listenerMap = new ConcurrentHashMap<>(); 
+    private final Map<EventType,DeliveryChannel> channels = new ConcurrentHashMap<>();
     private final Lock lock = new ReentrantLock();    
+    private final EventBus parent;
+    private volatile boolean metricsEnabled;
 
-    protected EventBus() {
-    } 
+    /**
+     *  Creates a new independent event bus with its own listeners.
+     */
+    public EventBus() {
+        this(null);
+    }
+
+    /**
+     *  Creates a new event bus with its own listeners that also forwards
+     *  every event published to it to the specified parent bus.
+     */
+    public EventBus( EventBus parent ) {
+        this.parent = parent;
+    }
+
+    /**
+     *  Returns the bus that events published to this bus are forwarded to or
+     *  null if events are not forwarded.
+     */
+    public EventBus getParent() {
+        return parent;
+    }
     
     /**
      *  Publishes the specified event to the event bus, delivering it to 
@@ -135,19 +221,47 @@ public class EventBus {
      *  Publishes the specified event to the event bus, delivering it to 
      *  all listeners registered for the particular type.
      */
+    @SuppressWarnings("unchecked")
     public <E> void publishEvent( EventType<E> type, E event ) {
     
         if( log.isTraceEnabled() ) {
             log.trace("publishEvent(" + type + ", " + event + ")");
         }
 
+        if( metricsEnabled ) {
+            getListeners(type).metrics.published();
+        }
+
+        DeliveryChannel channel = channels.get(type);
+        if( channel != null ) {
+            channel.offer(event);
+        } else {
+            dispatch(type, event);
+        }
+
+        if( parent != null ) {
+            parent.publishEvent(type, event);
+        }
+    }
+
+    /**
+     *  Delivers the event to the global listeners and the listeners of the
+     *  specified type on the current thread.
+     */
+    protected <E> void dispatch( EventType<E> type, E event ) {
         // Deliver to any global listeners first and we don't factor
         // them into the delivery check.  The global list is usually used
         // for things like lifecycle logging and not actual event handling.
         deliver(null, event, all);
         
         //System.out.println("listeners for type:" + type + " = " + getListeners(type));
-        boolean delivered = deliver(type, event, getListeners(type));
+        ListenerList listeners = getListeners(type);
+        boolean metrics = metricsEnabled;
+        long start = metrics ? System.nanoTime() : 0;
+        boolean delivered = deliver(type, event, listeners);
+        if( metrics ) {
+            listeners.metrics.delivered(System.nanoTime() - start, delivered);
+        }
         /*for( EventListener l : getListeners(type).getArray() ) {
             try {
                 l.newEvent(type, event);
@@ -159,7 +273,7 @@ public class EventBus {
                 } 
             }
         }*/
-        if( !delivered ) {
+        if( !delivered && log.isDebugEnabled() ) {
             log.debug("Undelivered event type:" + type + "  Event:" + event);
         }
     }
@@ -172,14 +286,29 @@ public class EventBus {
         }
     
         boolean delivered = false;
-        for( EventListener l : listeners.getArray() ) {
+        boolean metrics = metricsEnabled;
+        Snapshot snapshot = listeners.getSnapshot();
+        EventListener[] array = snapshot.listeners;
+        for( int i = 0; i < array.length; i++ ) {
+            EventListener l = array[i];
+            long start = metrics ? System.nanoTime() : 0;
             try {
                 l.newEvent(type, event);
                 delivered = true;
+                if( metrics ) {
+                    snapshot.collectors[i].record(System.nanoTime() - start, false);
+                }
             } catch( EventAbortedException e ) {
+                if( metrics ) {
+                    snapshot.collectors[i].record(System.nanoTime() - start, false);
+                }
                 log.error("Event aborted:" + event + " for type:" + type + " at handler:" + l, e);
                 throw e;
             } catch( Throwable t ) {
+                if( metrics ) {
+                    snapshot.collectors[i].record(System.nanoTime() - start, true);
+                    listeners.metrics.error();
+                }
                 log.error("Error handling event:" + event + " for type:" + type + "  in handler:" + l, t);
                 if( type != ErrorEvent.dispatchError ) {
                     publishEvent(ErrorEvent.dispatchError, new ErrorEvent(t, type, event));
@@ -189,6 +318,200 @@ public class EventBus {
         return delivered;
     }
  
+    /**
+     *  Binds the specified event type to an unbounded delivery channel so that
+     *  published events of that type are queued and delivered in order on the
+     *  specified executor instead of on the publishing thread.  If the executor
+     *  is null then events are queued until deliverQueued() is called.
+     */
+    public <E> void bindDelivery( EventType<E> type, Executor executor ) {
+        bindDelivery(type, executor, Integer.MAX_VALUE, BackPressure.Block);
+    }
+
+    /**
+     *  Binds the specified event type to a delivery channel so that published
+     *  events of that type are queued and delivered in order on the specified
+     *  executor instead of on the publishing thread.  If the executor is null
+     *  then events are queued until deliverQueued() is called.  At most 'capacity'
+     *  events will be queued at a time and 'backPressure' determines what happens
+     *  to events published when the queue is full.  Errors in listeners are
+     *  reported through ErrorEvent.dispatchError as usual.  Any events queued
+     *  for a previous binding of the same type are delivered first.
+     */
+    public <E> void bindDelivery( EventType<E> type, Executor executor,
+                                  int capacity, BackPressure backPressure ) {
+        if( capacity < 1 ) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        if( backPressure == null ) {
+            throw new IllegalArgumentException("Back pressure cannot be null");
+        }
+        DeliveryChannel<E> channel = new DeliveryChannel<>(type, executor, capacity, backPressure);
+        DeliveryChannel previous = channels.put(type, channel);
+        if( previous != null ) {
+            previous.drain();
+        }
+    }
+
+    /**
+     *  Removes the delivery channel for the specified event type so that its
+     *  events are once again delivered on the publishing thread.  Any events
+     *  still queued are delivered on the calling thread before this method returns.
+     */
+    public void unbindDelivery( EventType type ) {
+        DeliveryChannel channel = channels.remove(type);
+        if( channel != null ) {
+            channel.drain();
+        }
+    }
+
+    /**
+     *  Delivers, on the calling thread, all of the events currently queued
+     *  for the specified event type and returns the number delivered.  This is how
+     *  events are delivered for types bound without an executor.
+     */
+    public int deliverQueued( EventType type ) {
+        DeliveryChannel channel = channels.get(type);
+        if( channel == null ) {
+            return 0;
+        }
+        return channel.drain();
+    }
+
+    /**
+     *  Delivers, on the calling thread, all of the events currently queued
+     *  for types bound without an executor and returns the number delivered.
+     */
+    public int deliverQueued() {
+        int result = 0;
+        for( DeliveryChannel channel : channels.values() ) {
+            if( channel.executor == null ) {
+                result += channel.drain();
+            }
+        }
+        return result;
+    }
+
+    /**
+     *  Makes the specified event type coalescing so that a queued event is
+     *  replaced by any newer event with the same key instead of both being
+     *  delivered.  The newer event takes the older one's place in the queue.
+     *  This is useful for high-frequency events like state notifications where
+     *  listeners only care about the latest state of each object.  If the type
+     *  isn't already bound to a delivery channel then it is bound without an
+     *  executor so its events are delivered when deliverQueued() is called.
+     *  A null key function turns coalescing off.  Calling bindDelivery() again
+     *  resets this setting.
+     */
+    public <E> void setCoalescing( EventType<E> type, Function<? super E, ?> key ) {
+        getChannel(type).setCoalescing(key);
+    }
+
+    /**
+     *  Makes the specified event type prioritized so that queued events are
+     *  delivered in the order defined by the comparator, lowest first, instead
+     *  of in the order they were published.  The order of events that compare
+     *  as equal is not defined.  Note: for BackPressure.DropOldest channels,
+     *  the event dropped when the queue is full is the next one that would have
+     *  been delivered.  If the type isn't already bound to a delivery channel
+     *  then it is bound without an executor so its events are delivered when
+     *  deliverQueued() is called.  A null comparator turns prioritization off.
+     *  Calling bindDelivery() again resets this setting.
+     */
+    public <E> void setPriority( EventType<E> type, Comparator<? super E> priority ) {
+        getChannel(type).setPriority(priority);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <E> DeliveryChannel<E> getChannel( EventType<E> type ) {
+        DeliveryChannel<E> result = channels.get(type);
+        if( result == null ) {
+            lock.lock();
+            try {
+                result = channels.get(type);
+                if( result == null ) {
+                    result = new DeliveryChannel<>(type, null, Integer.MAX_VALUE, BackPressure.Block);
+                    channels.put(type, result);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return result;
+    }
+
+    /**
+     *  Returns the number of queued events of the specified type that were
+     *  replaced by newer events with the same coalescing key.
+     */
+    public long getCoalescedCount( EventType type ) {
+        DeliveryChannel channel = channels.get(type);
+        return channel == null ? 0 : channel.coalesced;
+    }
+
+    /**
+     *  Returns the number of events waiting to be delivered for the specified
+     *  type.
+     */
+    public int getQueuedCount( EventType type ) {
+        DeliveryChannel channel = channels.get(type);
+        return channel == null ? 0 : channel.size();
+    }
+
+    /**
+     *  Returns the number of events of the specified type that have been
+     *  dropped because its delivery channel was full.
+     */
+    public long getDroppedCount( EventType type ) {
+        DeliveryChannel channel = channels.get(type);
+        return channel == null ? 0 : channel.dropped;
+    }
+
+    /**
+     *  Set to true to collect per-type and per-listener delivery metrics:
+     *  publish counts, undelivered events, listener errors, and delivery
+     *  times.  This adds a few System.nanoTime() calls per listener per event.
+     *  Defaults to false.
+     */
+    public void setMetricsEnabled( boolean metricsEnabled ) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     *  Returns a snapshot of the metrics collected for the specified type.
+     */
+    public EventMetrics getMetrics( EventType type ) {
+        return getListeners(type).getMetrics();
+    }
+
+    /**
+     *  Returns a snapshot of the metrics for every event type that has been
+     *  published or listened to.  The first entry is for the global dispatch
+     *  listeners and has a null type.
+     */
+    public List<EventMetrics> getMetrics() {
+        List<EventMetrics> result = new ArrayList<>();
+        result.add(all.getMetrics());
+        for( ListenerList list : listenerMap.values() ) {
+            result.add(list.getMetrics());
+        }
+        return result;
+    }
+
+    /**
+     *  Clears all collected metrics.
+     */
+    public void resetMetrics() {
+        all.resetMetrics();
+        for( ListenerList list : listenerMap.values() ) {
+            list.resetMetrics();
+        }
+    }
+
     /**
      *  Returns the singleton EventBus instance.
      */   
@@ -213,7 +536,7 @@ public class EventBus {
                 if( list != null ) {
                     return list;
                 }
-                list = new ListenerList();
+                list = new ListenerList(type);
                 listenerMap.put(type, list);
             } finally {
                 lock.unlock();
@@ -324,10 +647,97 @@ public class EventBus {
         }
     }
  
+    /**
+     *  Returns the invoker for the specified listener method, creating it
+     *  if necessary.
+     */
+    protected static MethodInvoker getInvoker( Method m ) {
+        Map<Method, MethodInvoker> classInvokers = invokers.get(m.getDeclaringClass());
+        MethodInvoker result = classInvokers.get(m);
+        if( result == null ) {
+            result = createInvoker(m);
+            MethodInvoker existing = classInvokers.putIfAbsent(m, result);
+            if( existing != null ) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    /**
+     *  Creates an invoker that calls the specified listener method.  For public
+     *  methods of public classes, this generates a small class that calls the
+     *  method directly, just like a lambda would, so the JIT can treat it like any
+     *  other method call.  Other methods can't be called directly from generated
+     *  classes on all JVMs and calling them through a MethodHandle stored in a field
+     *  is slower than Method.invoke() (which the JVM already optimizes for repeated
+     *  calls) so those are still called reflectively.  The generated class lives
+     *  in EventBus's class loader so listeners from other class loaders that it
+     *  can't see, for example plugins or scripts, are also called reflectively.
+     */
+    protected static MethodInvoker createInvoker( final Method m ) {
+        if( Modifier.isPublic(m.getModifiers()) && Modifier.isPublic(m.getDeclaringClass().getModifiers())
+            && isVisible(m.getDeclaringClass()) && isVisible(m.getParameterTypes()[0]) ) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle impl = lookup.unreflect(m);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "invoke",
+                                                              MethodType.methodType(MethodInvoker.class),
+                                                              INVOKER_TYPE, impl,
+                                                              MethodType.methodType(void.class,
+                                                                                    m.getDeclaringClass(),
+                                                                                    m.getParameterTypes()[0]));
+                return (MethodInvoker)site.getTarget().invoke();
+            } catch( Throwable t ) {
+                log.warn("Unable to generate invoker for:" + m + ", using reflection instead", t);
+            }
+        }
+        return new MethodInvoker() {
+                public void invoke( Object target, Object event ) throws Throwable {
+                    try {
+                        m.invoke(target, event);
+                    } catch( InvocationTargetException e ) {
+                        throw e.getCause();
+                    }
+                }
+            };
+    }
+
+    /**
+     *  Returns true if the specified class resolves to the same class
+     *  from EventBus's own class loader.
+     */
+    private static boolean isVisible( Class type ) {
+        while( type.isArray() ) {
+            type = type.getComponentType();
+        }
+        if( type.isPrimitive() ) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, EventBus.class.getClassLoader()) == type;
+        } catch( ClassNotFoundException | LinkageError e ) {
+            return false;
+        }
+    }
+
+    /**
+     *  Calls a specific listener method on a listener object.
+     */
+    protected interface MethodInvoker {
+        public void invoke( Object target, Object event ) throws Throwable;
+    }
+
+    /**
+     *  Delivers events to a listener method through a MethodInvoker that is
+     *  shared by all listeners with the same method.  Exceptions thrown by the
+     *  listener method are passed through as is instead of being wrapped.
+     */
     private class MethodDispatcher implements EventListener {
     
         private Object delegate;
         private Method method;
+        private final MethodInvoker invoker;
         
         public MethodDispatcher( Object delegate, Method m ) {
             if( m == null ) {                    
@@ -335,33 +745,337 @@ public class EventBus {
             }
             this.delegate = delegate;
             this.method = m;
+            this.invoker = getInvoker(m);
         }
         
         @Override
         public void newEvent( EventType type, Object event ) {
             try {
-                method.invoke( delegate, event );
-            } catch( IllegalAccessException | InvocationTargetException ex ) {
-                throw new RuntimeException("Error calling:" + method + " for event:" + event, ex);
+                invoker.invoke(delegate, event);
+            } catch( RuntimeException | Error e ) {
+                throw e;
+            } catch( Throwable t ) {
+                throw new RuntimeException("Error calling:" + method + " for event:" + event, t);
             }
+        }
+        
+        @Override
+        public String toString() {
+            return "MethodDispatcher[" + method + ", " + delegate + "]";
         }    
     }
     
+    /**
+     *  Queues the events of one type for later in-order delivery.
+     */
+    private class DeliveryChannel<E> implements Runnable {
+        private final EventType<E> type;
+        private final Executor executor;
+        private final int capacity;
+        private final BackPressure backPressure;
+        private Queue<E> queue = new ArrayDeque<>();
+        private Function<? super E, ?> keyFunction;
+        private Map<Object, E> latest;
+        private boolean scheduled;
+        private volatile long dropped;
+        private volatile long coalesced;
+
+        // Only one thread delivers at a time so that order is preserved
+        private final ReentrantLock deliveryLock = new ReentrantLock();
+
+        public DeliveryChannel( EventType<E> type, Executor executor, int capacity, BackPressure backPressure ) {
+            this.type = type;
+            this.executor = executor;
+            this.capacity = capacity;
+            this.backPressure = backPressure;
+        }
+
+        public synchronized void setCoalescing( Function<? super E, ?> keyFunction ) {
+            // The queue only holds place holders for coalesced events so
+            // resolve them to the latest event for their key before requeuing.
+            List<E> pending = new ArrayList<>(queue.size());
+            for( E event : queue ) {
+                pending.add(latest == null ? event : latest.get(this.keyFunction.apply(event)));
+            }
+            queue.clear();
+            this.keyFunction = keyFunction;
+            this.latest = keyFunction == null ? null : new HashMap<>();
+            for( E event : pending ) {
+                add(event);
+            }
+        }
+
+        public synchronized void setPriority( Comparator<? super E> priority ) {
+            Queue<E> newQueue = priority == null ? new ArrayDeque<>() : new PriorityQueue<>(11, priority);
+            newQueue.addAll(queue);
+            this.queue = newQueue;
+        }
+
+        private void add( E event ) {
+            if( latest != null ) {
+                // We replace the value and leave the older event in the queue
+                // as a place holder.  When it comes time to deliver, the
+                // latest event for that key will be delivered instead.
+                if( latest.put(keyFunction.apply(event), event) != null ) {
+                    coalesced++;
+                    return;
+                }
+            }
+            queue.add(event);
+        }
+
+        private E removeHead() {
+            E result = queue.poll();
+            if( result != null && latest != null ) {
+                result = latest.remove(keyFunction.apply(result));
+            }
+            return result;
+        }
+
+        public void offer( E event ) {
+            while( !tryOffer(event) ) {
+                // Nothing else is going to make room so deliver the oldest
+                // event on this thread.
+                deliverNext();
+            }
+        }
+
+        /**
+         *  Queues the event, dropping or waiting according to the back pressure
+         *  setting when the queue is full.  Returns false without queuing if
+         *  the queue is full and waiting would never end, either because there
+         *  is no executor or because this thread is the one delivering events.
+         */
+        private boolean tryOffer( E event ) {
+            synchronized( this ) {
+                if( latest != null ) {
+                    // Replacing an already queued event takes no room
+                    Object key = keyFunction.apply(event);
+                    if( latest.containsKey(key) ) {
+                        latest.put(key, event);
+                        coalesced++;
+                        return true;
+                    }
+                }
+                while( queue.size() >= capacity ) {
+                    switch( backPressure ) {
+                        case DropNewest:
+                            dropped++;
+                            return true;
+                        case DropOldest:
+                            removeHead();
+                            dropped++;
+                            break;
+                        case Block:
+                        default:
+                            if( executor == null || deliveryLock.isHeldByCurrentThread() ) {
+                                return false;
+                            }
+                            try {
+                                wait();
+                            } catch( InterruptedException e ) {
+                                Thread.currentThread().interrupt();
+                                throw new RuntimeException("Interrupted waiting to publish:" + event + " for type:" + type, e);
+                            }
+                            break;
+                    }
+                }
+                add(event);
+                if( executor == null || scheduled ) {
+                    return true;
+                }
+                scheduled = true;
+            }
+            try {
+                executor.execute(this);
+            } catch( RuntimeException e ) {
+                synchronized( this ) {
+                    scheduled = false;
+                }
+                throw e;
+            }
+            return true;
+        }
+
+        public synchronized int size() {
+            return queue.size();
+        }
+
+        private synchronized E poll() {
+            E result = removeHead();
+            if( result != null ) {
+                // Let any blocked publishers know there is room
+                notifyAll();
+            }
+            return result;
+        }
+
+        /**
+         *  Delivers all currently queued events on the calling thread.
+         */
+        public int drain() {
+            int count = 0;
+            deliveryLock.lock();
+            try {
+                E event;
+                while( (event = poll()) != null ) {
+                    count++;
+                    deliverEvent(event);
+                }
+            } finally {
+                deliveryLock.unlock();
+            }
+            return count;
+        }
+
+        /**
+         *  Delivers the oldest queued event, if any, on the calling thread.
+         */
+        private void deliverNext() {
+            deliveryLock.lock();
+            try {
+                E event = poll();
+                if( event != null ) {
+                    deliverEvent(event);
+                }
+            } finally {
+                deliveryLock.unlock();
+            }
+        }
+
+        private void deliverEvent( E event ) {
+            try {
+                dispatch(type, event);
+            } catch( EventAbortedException e ) {
+                // Already logged and only applies to this event
+            }
+        }
+
+        /**
+         *  Run on the executor to deliver events until the queue is empty.
+         */
+        @Override
+        public void run() {
+            while( true ) {
+                drain();
+                synchronized( this ) {
+                    if( queue.isEmpty() ) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     *  Collects the delivery metrics of one listener.  The time histogram
+     *  is only created once there is something to record.
+     */
+    private static class ListenerCollector {
+        private final EventListener listener;
+        private long calls;
+        private long errors;
+        private TimeHistogram time;
+
+        public ListenerCollector( EventListener listener ) {
+            this.listener = listener;
+        }
+
+        public synchronized void record( long nanos, boolean error ) {
+            if( time == null ) {
+                time = new TimeHistogram();
+            }
+            calls++;
+            if( error ) {
+                errors++;
+            }
+            time.record(nanos);
+        }
+
+        public synchronized void reset() {
+            calls = 0;
+            errors = 0;
+            time = null;
+        }
+
+        public synchronized EventMetrics.ListenerMetrics getMetrics() {
+            return new EventMetrics.ListenerMetrics(listener, calls, errors,
+                                                    time == null ? TimeStats.EMPTY : time.getStats());
+        }
+    }
+
+    /**
+     *  Collects the delivery metrics of one event type.
+     */
+    private static class TypeCollector {
+        private final LongAdder published = new LongAdder();
+        private final LongAdder undelivered = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private TimeHistogram delivery;
+
+        public void published() {
+            published.increment();
+        }
+
+        public void error() {
+            errors.increment();
+        }
+
+        public synchronized void delivered( long nanos, boolean delivered ) {
+            if( !delivered ) {
+                undelivered.increment();
+            }
+            if( delivery == null ) {
+                delivery = new TimeHistogram();
+            }
+            delivery.record(nanos);
+        }
+
+        public synchronized void reset() {
+            published.reset();
+            undelivered.reset();
+            errors.reset();
+            delivery = null;
+        }
+
+        public synchronized TimeStats getDeliveryStats() {
+            return delivery == null ? TimeStats.EMPTY : delivery.getStats();
+        }
+    }
+
+    /**
+     *  The listeners of a ListenerList and their metrics collectors as
+     *  of the last change, swapped as a whole so they always line up.
+     */
+    private static class Snapshot {
+        private final EventListener[] listeners;
+        private final ListenerCollector[] collectors;
+
+        public Snapshot( EventListener[] listeners, ListenerCollector[] collectors ) {
+            this.listeners = listeners;
+            this.collectors = collectors;
+        }
+    }
+
     private class ListenerList {
         
+        private final EventType type;
         private final List<EventListener> list = new ArrayList<>();
-        private volatile EventListener[] array = null;  
+        private final List<ListenerCollector> collectorList = new ArrayList<>();
+        private volatile Snapshot snapshot = null;  
+        private final TypeCollector metrics = new TypeCollector();
  
-        public ListenerList() {
+        public ListenerList( EventType type ) {
+            this.type = type;
             resetArray();
         }
         
         public boolean isEmpty() {
-            // Relatively safe here because we know a little about how
-            // ArrayList is implemented and our constant usage of a volatile
-            // variable means that this threads view of the data structure is
-            // likely to be up to date.
-            return list.isEmpty();
+            // The snapshot is what will actually be delivered to and reading
+            // it is a single volatile read instead of an unguarded peek at
+            // the ArrayList.
+            return snapshot.listeners.length == 0;
         }
         
         protected final void resetArray() {
@@ -369,12 +1083,32 @@ public class EventBus {
             //array = list.toArray(array != null ? array : new EventListener[list.size()]);
             // Can't reuse the array or we create the exact threading problem we
             // were trying to avoid.
-            array = list.toArray(new EventListener[list.size()]);
-            
+            snapshot = new Snapshot(list.toArray(new EventListener[list.size()]),
+                                    collectorList.toArray(new ListenerCollector[collectorList.size()]));
         }
         
         protected final EventListener[] getArray() {
-            return array;
+            return snapshot.listeners;
+        }
+
+        protected final Snapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public EventMetrics getMetrics() {
+            List<EventMetrics.ListenerMetrics> listenerMetrics = new ArrayList<>();
+            for( ListenerCollector collector : snapshot.collectors ) {
+                listenerMetrics.add(collector.getMetrics());
+            }
+            return new EventMetrics(type, metrics.published.sum(), metrics.undelivered.sum(),
+                                    metrics.errors.sum(), metrics.getDeliveryStats(), listenerMetrics);
+        }
+
+        public void resetMetrics() {
+            metrics.reset();
+            for( ListenerCollector collector : snapshot.collectors ) {
+                collector.reset();
+            }
         }
     
         public void add( EventListener listener ) {
@@ -382,6 +1116,7 @@ public class EventBus {
             lock.lock();
             try {
                 list.add(listener);
+                collectorList.add(new ListenerCollector(listener));
                 
                 // Implement 'copy on write'
                 resetArray();
@@ -394,7 +1129,12 @@ public class EventBus {
             // Go ahead and grab the central lock
             lock.lock();
             try {
-                list.remove(listener);
+                int index = list.indexOf(listener);
+                if( index < 0 ) {
+                    return;
+                }
+                list.remove(index);
+                collectorList.remove(index);
                 
                 // Implement 'copy on write'
                 resetArray();
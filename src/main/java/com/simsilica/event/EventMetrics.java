@@ -0,0 +1,181 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.event;
+
+import java.util.*;
+
+import com.google.common.base.MoreObjects;
+
+import com.simsilica.util.TimeStats;
+
+/**
+ *  An immutable snapshot of the delivery metrics that an EventBus has
+ *  collected for one event type since metrics were enabled or last reset.
+ *  See EventBus.setMetricsEnabled().
+ *
+ *  @author    Paul Speed
+ */
+public class EventMetrics {
+
+    private final EventType type;
+    private final long publishCount;
+    private final long undeliveredCount;
+    private final long errorCount;
+    private final TimeStats deliveryTime;
+    private final List<ListenerMetrics> listeners;
+
+    public EventMetrics( EventType type, long publishCount, long undeliveredCount, long errorCount,
+                         TimeStats deliveryTime, List<ListenerMetrics> listeners ) {
+        this.type = type;
+        this.publishCount = publishCount;
+        this.undeliveredCount = undeliveredCount;
+        this.errorCount = errorCount;
+        this.deliveryTime = deliveryTime;
+        this.listeners = Collections.unmodifiableList(new ArrayList<>(listeners));
+    }
+
+    /**
+     *  Returns the event type or null for the metrics of the global dispatch
+     *  listeners.
+     */
+    public EventType getType() {
+        return type;
+    }
+
+    /**
+     *  Returns the number of events of this type that were published.
+     */
+    public long getPublishCount() {
+        return publishCount;
+    }
+
+    /**
+     *  Returns the number of events of this type that were delivered to no
+     *  listeners.
+     */
+    public long getUndeliveredCount() {
+        return undeliveredCount;
+    }
+
+    /**
+     *  Returns the number of times a listener threw an exception while handling
+     *  an event of this type.
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     *  Returns the statistics of the time it took to deliver each event to all
+     *  of this type's listeners.
+     */
+    public TimeStats getDeliveryTime() {
+        return deliveryTime;
+    }
+
+    /**
+     *  Returns the metrics of the individual listeners currently registered for
+     *  this type.
+     */
+    public List<ListenerMetrics> getListeners() {
+        return listeners;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("type", type)
+                .add("publishCount", publishCount)
+                .add("undeliveredCount", undeliveredCount)
+                .add("errorCount", errorCount)
+                .add("deliveryTime", deliveryTime)
+                .add("listeners", listeners)
+                .toString();
+    }
+
+    /**
+     *  The delivery metrics of a single listener.
+     */
+    public static class ListenerMetrics {
+        private final Object listener;
+        private final long callCount;
+        private final long errorCount;
+        private final TimeStats time;
+
+        public ListenerMetrics( Object listener, long callCount, long errorCount, TimeStats time ) {
+            this.listener = listener;
+            this.callCount = callCount;
+            this.errorCount = errorCount;
+            this.time = time;
+        }
+
+        /**
+         *  Returns the listener.  For listeners added with addListenerMethods()
+         *  this is an internal dispatcher whose toString() describes the target
+         *  method and object.
+         */
+        public Object getListener() {
+            return listener;
+        }
+
+        public long getCallCount() {
+            return callCount;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        /**
+         *  Returns the statistics of the time the listener took to handle
+         *  each event.
+         */
+        public TimeStats getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                    .add("listener", listener)
+                    .add("callCount", callCount)
+                    .add("errorCount", errorCount)
+                    .add("time", time)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.locks.LockSupport;
+
+import com.simsilica.util.RollingTimeWindow;
+import com.simsilica.util.TimeStats;
+
+/**
+ *  A LoopSleepStrategy that parks the thread for the bulk of the wait
+ *  and then spins for the last little bit.  Instead of guessing the OS wake-up
+ *  latency like NanoLoopSleepStrategy, it measures how much each
+ *  LockSupport.parkNanos() call actually overshoots and keeps a running
+ *  estimate (mean plus four times the mean deviation, similar to how TCP
+ *  estimates round trip times).  It then parks for the remaining time minus
+ *  that margin and spins the rest.  This gets frame start times within a few
+ *  microseconds of ideal on most hosts while only spinning for a small part of
+ *  each frame.
+ *
+ *  <p>The lateness of each frame start relative to its ideal time is kept
+ *  as rolling jitter statistics, and the observed park overshoot is also
+ *  available, so that the behavior on a particular host can be monitored.</p>
+ *
+ *  <p>On Java 9+ the spin loop calls Thread.onSpinWait().</p>
+ *
+ *  @author    Paul Speed
+ */
+public class AdaptiveLoopSleepStrategy implements LoopSleepStrategy {
+
+    private static final MethodHandle ON_SPIN_WAIT = findOnSpinWait();
+
+    private long updateRate;
+    private long minSpinNanos = 20000;
+
+    // Running estimate of the parkNanos() overshoot.  Start out
+    // pessimistic like NanoLoopSleepStrategy and let it adapt.
+    private volatile double overshootMean = 100000;
+    private volatile double overshootDeviation = 0;
+
+    private final RollingTimeWindow jitter;
+    private final RollingTimeWindow overshoot;
+
+    public AdaptiveLoopSleepStrategy() {
+        this(GameLoop.FPS_60);
+    }
+
+    public AdaptiveLoopSleepStrategy( long updateRateNanos ) {
+        this(updateRateNanos, 600);
+    }
+
+    /**
+     *  Creates a strategy that keeps jitter and overshoot statistics over
+     *  the specified number of samples.
+     */
+    public AdaptiveLoopSleepStrategy( long updateRateNanos, int statsWindowSize ) {
+        this.updateRate = updateRateNanos;
+        this.jitter = new RollingTimeWindow(statsWindowSize);
+        this.overshoot = new RollingTimeWindow(statsWindowSize);
+    }
+
+    private static MethodHandle findOnSpinWait() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Thread.class, "onSpinWait",
+                                                           MethodType.methodType(void.class));
+        } catch( NoSuchMethodException | IllegalAccessException e ) {
+            // Pre-Java 9 so we'll just spin
+            return null;
+        }
+    }
+
+    @Override
+    public void setUpdateRateNanos( long updateRate ) {
+        this.updateRate = updateRate;
+    }
+
+    @Override
+    public long getUpdateRateNanos() {
+        return updateRate;
+    }
+
+    /**
+     *  Sets the minimum amount of time at the end of each wait that will always
+     *  be spent spinning instead of parked, regardless of the overshoot estimate.
+     *  Defaults to 20 microseconds.
+     */
+    public void setMinSpinNanos( long minSpinNanos ) {
+        this.minSpinNanos = minSpinNanos;
+    }
+
+    public long getMinSpinNanos() {
+        return minSpinNanos;
+    }
+
+    /**
+     *  Returns the current estimate of how much a parkNanos() call will
+     *  overshoot its requested time.  This plus the minimum spin time is how much
+     *  of each wait is spent spinning.
+     */
+    public long getOvershootEstimateNanos() {
+        return (long)(overshootMean + 4 * overshootDeviation);
+    }
+
+    /**
+     *  Returns the rolling statistics for how late, in nanoseconds, each
+     *  loopSleep() returned relative to the ideal start of the next frame.
+     */
+    public TimeStats getJitterStats() {
+        return jitter.getStats();
+    }
+
+    /**
+     *  Returns the rolling statistics of the observed parkNanos() overshoot.
+     */
+    public TimeStats getOvershootStats() {
+        return overshoot.getStats();
+    }
+
+    @Override
+    public void loopSleep( long currentFrameTime, long pollDelta, long lastUpdateTime, long systemUpdateLength ) throws InterruptedException {
+
+        long nextFrameTime = lastUpdateTime + updateRate;
+
+        // Park for as long as we safely can.  parkNanos() can also return
+        // early so we loop until we are within the margin.
+        long now = System.nanoTime();
+        while( true ) {
+            long parkTime = (nextFrameTime - now) - minSpinNanos - getOvershootEstimateNanos();
+            if( parkTime <= 0 ) {
+                break;
+            }
+            LockSupport.parkNanos(parkTime);
+            long woke = System.nanoTime();
+            if( Thread.interrupted() ) {
+                throw new InterruptedException();
+            }
+            long over = (woke - now) - parkTime;
+            if( over >= 0 ) {
+                // Only full length parks tell us anything about the overshoot
+                updateEstimate(over);
+            }
+            now = woke;
+        }
+
+        // Spin out the rest
+        while( nextFrameTime - now > 0 ) {
+            onSpinWait();
+            now = System.nanoTime();
+        }
+        jitter.add(now - nextFrameTime);
+    }
+
+    protected void updateEstimate( long sample ) {
+        overshoot.add(sample);
+        double error = sample - overshootMean;
+        overshootMean += error / 8;
+        overshootDeviation += (Math.abs(error) - overshootDeviation) / 4;
+    }
+
+    protected static void onSpinWait() {
+        if( ON_SPIN_WAIT == null ) {
+            return;
+        }
+        try {
+            ON_SPIN_WAIT.invokeExact();
+        } catch( Throwable t ) {
+            throw new RuntimeException("Error calling onSpinWait()", t);
+        }
+    }
+}
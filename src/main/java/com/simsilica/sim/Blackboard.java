@@ -39,10 +39,13 @@ package com.simsilica.sim;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.*;
 
-import com.google.common.base.MoreObjects;
+import com.simsilica.lemur.core.VersionedObject;
+import com.simsilica.lemur.core.VersionedReference;
 
 /**
  *  A general place for posting standard shared global objects
@@ -73,35 +76,74 @@ import com.google.common.base.MoreObjects;
  *  apply and care must be taken.  In our example, publishing "eye position"
  *  to the blackboard already limits the game to a single eye.  Pitfalls a plenty.
  *
+ *  Every value has a version that is incremented whenever it is set or
+ *  updated.  Code on other threads, like the render thread, can use
+ *  createReference() to get a Lemur VersionedReference and check for
+ *  changes once per frame instead of watching the value and being called
+ *  back on the writer's thread.
+ *
+ *  By default, listeners are notified on the writer's thread as part of
+ *  set() or update().  With setDeferredNotifications(true), changes are
+ *  instead collected per key and only the latest value of each changed key
+ *  is delivered when deliverPendingNotifications() is called, once per frame
+ *  by the GameSystemManager, or on a notification executor if one is set.
+ *
  *  @author    Paul Speed
  */
 public class Blackboard {
     static Logger log = LoggerFactory.getLogger(Blackboard.class);
 
-    private Map<Key, Object> index = new ConcurrentHashMap<>();
-    private List<BlackboardListener> listeners = new CopyOnWriteArrayList<>();
+    private static final Registration[] NO_LISTENERS = new Registration[0];
+    private static final KeyObserver[] NO_OBSERVERS = new KeyObserver[0];
+
+    // Generic listeners and key observers are numbered as they are added
+    // so that they can be notified together in the order they were added.
+    private final AtomicLong registrations = new AtomicLong();
+    private volatile Registration[] listeners = NO_LISTENERS;
+
+    // Values and observers of specific keys are indexed by key so that an
+    // update only has to notify the observers of the value that changed.
+    private Map<BlackboardKey, Entry> entries = new ConcurrentHashMap<>();
+
+    // For deferred notifications
+    private volatile boolean deferredNotifications;
+    private volatile Executor notificationExecutor;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+    private final Object deliveryLock = new Object();
+    private final Runnable deliveryTask = new Runnable() {
+            public void run() {
+                deliveryScheduled.set(false);
+                deliverPendingNotifications();
+            }
+        };
 
     public Blackboard() {
     }
 
     public <T> T get( Class<T> type ) {
-        return type.cast(get(new Key(type)));
+        return get(BlackboardKey.lookup(type));
     }
 
     public <T> T get( String id, Class<T> type ) {
-        return type.cast(get(new Key(id, type)));
+        return get(BlackboardKey.lookup(id, type));
     }
 
     public Object get( String id ) {
-        return get(new Key(id));
+        return get(BlackboardKey.lookup(id));
     }
 
-    protected Object get( Key key ) {
-        Object result = index.get(key);
+    /**
+     *  Returns the value for the specified key or throws an IllegalArgumentException
+     *  if there is no value.  This is the fastest way to look up a value as
+     *  no key needs to be looked up or created.
+     */
+    public <T> T get( BlackboardKey<T> key ) {
+        Object result = getValue(key);
         if( result == null ) {
             throw new IllegalArgumentException("Value does not exist for:" + key);
         }
-        return result;
+        return key.getType().cast(result);
     }
 
     /**
@@ -109,7 +151,7 @@ public class Blackboard {
      *  set and return the provided value.
      */
     public <T> T get( Class<T> type, Callable<T> initialValue ) {
-        return type.cast(get(new Key(type), initialValue));
+        return get(BlackboardKey.lookup(type), initialValue);
     }
 
     /**
@@ -117,7 +159,7 @@ public class Blackboard {
      *  set and return the provided value.
      */
     public <T> T get( String id, Class<T> type, Callable<T> initialValue ) {
-        return type.cast(get(new Key(id, type), initialValue));
+        return get(BlackboardKey.lookup(id, type), initialValue);
     }
 
     /**
@@ -126,13 +168,17 @@ public class Blackboard {
      */
     @SuppressWarnings("unchecked")
     public <T> T get( String id, Callable<T> initialValue ) {
-        return (T)get(new Key(id), initialValue);
+        return (T)get(BlackboardKey.lookup(id), (Callable)initialValue);
     }
 
-    protected Object get( Key key, Callable initialValue ) {
-        Object existing = index.get(key);
+    /**
+     *  Retrieves the specified value if it exists else it will
+     *  set and return the provided value.
+     */
+    public <T> T get( BlackboardKey<T> key, Callable<T> initialValue ) {
+        Object existing = getValue(key);
         if( existing != null ) {
-            return existing;
+            return key.getType().cast(existing);
         }
         // It's possible that we execute the callable unnecessarily
         // if we are being initialized from multiple threads...
@@ -144,127 +190,240 @@ public class Blackboard {
                 if( log.isTraceEnabled() ) {
                     log.trace("putIfAbsent(" + key + ", " + newValue + ")");
                 }
-                existing = index.putIfAbsent(key, newValue);
-                if( existing == null ) {
-                    return newValue;
+                Entry entry = getEntry(key);
+                Object result;
+                while( (result = entry.putIfAbsent(newValue)) == null ) {
+                    entry = replaceRemoved(entry);
                 }
-                return existing;
+                return key.getType().cast(result);
             } catch( Exception e ) {
                 throw new RuntimeException("Exception running:" + initialValue, e);
             }
         }
     }
 
+    protected Object getValue( BlackboardKey key ) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
     public void set( String id, Object value ) {
-        if( value == null ) {
-            throw new IllegalArgumentException("Value cannot be null");
-        }
-        set(new Key(id), value);
+        set(BlackboardKey.lookup(id), value);
     }
 
     public <T> void set( String id, Class<? super T> type, T value ) {
-        if( value == null ) {
-            throw new IllegalArgumentException("Value cannot be null");
-        }
-        set(new Key(id, type), value);
+        setValue(BlackboardKey.lookup(id, type), value);
     }
 
     public <T> void set( Class<? super T> type, T value ) {
-        set(new Key(type), value);
+        setValue(BlackboardKey.lookup(type), value);
     }
 
-    protected void set( Key key, Object value ) {
+    /**
+     *  Sets the value for the specified key.  It is an error to set a
+     *  different value if one is already set.  Use update() for values that
+     *  change.
+     */
+    public <T> void set( BlackboardKey<T> key, T value ) {
+        setValue(key, value);
+    }
+
+    protected void setValue( BlackboardKey key, Object value ) {
+        if( value == null ) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
         if( log.isTraceEnabled() ) {
             log.trace("set(" + key + ", " + value + ")");
         }
-        Object existing = index.get(key);
-        if( existing != null && !Objects.equals(value, existing) ) {
-            throw new IllegalArgumentException("There is already a value set for:" + key);
+        Entry entry = getEntry(key);
+        while( !entry.set(value) ) {
+            entry = replaceRemoved(entry);
         }
-        index.put(key, value);
         fireUpdate(key, value);
     }
 
     public void update( String id, Object value ) {
-        update(new Key(id), value);
+        update(BlackboardKey.lookup(id), value);
     }
 
     public <T> void update( String id, Class<? super T> type, T value ) {
-        update(new Key(id, type), value);
+        updateValue(BlackboardKey.lookup(id, type), value);
     }
 
     public <T> void update( Class<? super T> type, T value ) {
-        update(new Key(type), value);
+        updateValue(BlackboardKey.lookup(type), value);
     }
 
-    protected void update( Key key, Object value ) {
+    /**
+     *  Sets or replaces the value for the specified key.  A null value
+     *  removes the current value and, if nothing is watching the key or
+     *  holding a reference to it, the key itself so that values for
+     *  transient ids don't accumulate.
+     */
+    public <T> void update( BlackboardKey<T> key, T value ) {
+        updateValue(key, value);
+    }
+
+    protected void updateValue( BlackboardKey key, Object value ) {
         if( log.isTraceEnabled() ) {
             log.trace("update(" + key + ", " + value + ")");
         }
-        if( value == null ) {
-            index.remove(key);
-        } else {
-            index.put(key, value);
+        Entry entry = getEntry(key);
+        while( !entry.update(value) ) {
+            entry = replaceRemoved(entry);
         }
         fireUpdate(key, value);
+        if( value == null ) {
+            removeIfUnused(entry);
+        }
+    }
+
+    /**
+     *  Set to true to have listeners notified in batches instead of
+     *  during every set() or update().  Changes are coalesced per key so that
+     *  listeners only see the latest value of a key that changed, no matter how
+     *  many times it was updated in between.  Pending notifications are delivered
+     *  by deliverPendingNotifications(), which the GameSystemManager calls at
+     *  the end of every frame, or on the notification executor if one is set.
+     *  Defaults to false.
+     */
+    public void setDeferredNotifications( boolean deferredNotifications ) {
+        this.deferredNotifications = deferredNotifications;
+        if( !deferredNotifications ) {
+            // Don't leave anything hanging
+            deliverPendingNotifications();
+        }
+    }
+
+    public boolean isDeferredNotifications() {
+        return deferredNotifications;
+    }
+
+    /**
+     *  Sets an executor that will be used to deliver deferred notifications
+     *  as soon as there are any pending.  If null, which is the default, then
+     *  pending notifications are delivered when deliverPendingNotifications()
+     *  is called.  Only used when deferred notifications are enabled.
+     */
+    public void setNotificationExecutor( Executor notificationExecutor ) {
+        this.notificationExecutor = notificationExecutor;
+    }
+
+    public Executor getNotificationExecutor() {
+        return notificationExecutor;
+    }
+
+    /**
+     *  Returns true if there are deferred notifications waiting to be delivered.
+     */
+    public boolean hasPendingNotifications() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     *  Notifies listeners of the latest value of every key that has changed
+     *  since the last call.  Does nothing if there are no pending notifications.
+     */
+    public void deliverPendingNotifications() {
+        if( pending.isEmpty() ) {
+            return;
+        }
+        // Only one thread should deliver at a time so that listeners always
+        // see a key's changes in order.
+        synchronized( deliveryLock ) {
+            Entry entry;
+            while( (entry = pending.poll()) != null ) {
+                // Clear the flag before grabbing the value so that any
+                // later change will be queued again.
+                entry.pending.set(false);
+                notifyListeners(entry.key, entry, entry.value);
+                removeIfUnused(entry);
+            }
+        }
     }
 
     public void addBlackboardListener( BlackboardListener l ) {
-        listeners.add(l);
+        synchronized( registrations ) {
+            Registration[] array = Arrays.copyOf(listeners, listeners.length + 1);
+            array[array.length - 1] = new Registration(l, registrations.getAndIncrement());
+            listeners = array;
+        }
     }
 
     public void removeBlackboardListener( BlackboardListener l ) {
-        listeners.remove(l);
+        synchronized( registrations ) {
+            Registration[] array = listeners;
+            for( int i = 0; i < array.length; i++ ) {
+                if( !array[i].listener.equals(l) ) {
+                    continue;
+                }
+                Registration[] result = new Registration[array.length - 1];
+                System.arraycopy(array, 0, result, 0, i);
+                System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+                listeners = result;
+                return;
+            }
+        }
     }
 
+    @SuppressWarnings("unchecked")
     public <T> Consumer<T> watch( String id, Consumer<T> consumer ) {
-        watch(new Key(id), consumer);
+        watch((BlackboardKey)BlackboardKey.lookup(id), consumer);
         return consumer;
     }
 
     public <T> Consumer<T> watch( String id, Class<T> type, Consumer<T> consumer ) {
-        watch(new Key(id, type), consumer);
-        return consumer;
+        return watch(BlackboardKey.lookup(id, type), consumer);
     }
 
-    @SuppressWarnings("unchecked")
-    protected void watch( Key key, Consumer consumer ) {
+    /**
+     *  Calls the specified consumer every time the value for the key changes
+     *  and calls it right away if the value is already set.
+     */
+    public <T> Consumer<T> watch( BlackboardKey<T> key, Consumer<T> consumer ) {
         if( log.isTraceEnabled() ) {
             log.trace("watch(" + key + ", " + consumer + ")");
         }
         // Add the listener that will notify the consumer about changes
-        listeners.add(new ValueObserver(key, consumer));
+        addObserver(key, new ValueObserver(key, consumer));
 
         // See if it's already set so we can notify the consumer right away
         // and save the caller some complexity
-        Object existing = index.get(key);
+        Object existing = getValue(key);
         if( log.isTraceEnabled() ) {
             log.trace("existing:" + existing);
         }
         if( existing != null ) {
-            consumer.accept(existing);
+            consumer.accept(key.getType().cast(existing));
         }
+        return consumer;
     }
 
+    @SuppressWarnings("unchecked")
     public <T> void unwatch( String id, Consumer<T> consumer ) {
-        unwatch(new Key(id), consumer);
+        unwatch((BlackboardKey)BlackboardKey.lookup(id), consumer);
     }
 
     public <T> void unwatch( String id, Class<T> type, Consumer<T> consumer ) {
-        unwatch(new Key(id, type), consumer);
+        unwatch(BlackboardKey.lookup(id, type), consumer);
     }
 
-    protected void unwatch( Key key, Consumer consumer ) {
+    public <T> void unwatch( BlackboardKey<T> key, Consumer<T> consumer ) {
+        Entry entry = entries.get(key);
+        if( entry == null ) {
+            return;
+        }
         // Find our specific consumer and remove it
-        for( BlackboardListener l : listeners ) {
+        for( KeyObserver l : entry.observers ) {
             if( !(l instanceof ValueObserver) ) {
                 continue;
             }
             ValueObserver observer = (ValueObserver)l;
-            if( observer.consumer == consumer && observer.filter.equals(key) ) {
-                listeners.remove(l);
+            if( observer.consumer == consumer ) {
+                entry.removeObserver(l);
             }
         }
+        removeIfUnused(entry);
     }
 
     /**
@@ -272,7 +431,7 @@ public class Blackboard {
      *  has been set or calls it immediately if it is already set.
      */
     public <T> void onInitialize( Class<T> type, Consumer<T> consumer ) {
-        onInitialize(new Key(type), consumer);
+        onInitialize(BlackboardKey.lookup(type), consumer);
     }
 
     /**
@@ -280,124 +439,420 @@ public class Blackboard {
      *  has been set or calls it immediately if it is already set.
      */
     public <T> void onInitialize( String id, Class<T> type, Consumer<T> consumer ) {
-        onInitialize(new Key(id, type), consumer);
+        onInitialize(BlackboardKey.lookup(id, type), consumer);
     }
 
     /**
      *  Calls the specified consumer when the value associated with 'id'
      *  has been set or calls it immediately if it is already set.
      */
+    @SuppressWarnings("unchecked")
     public void onInitialize( String id, Consumer consumer ) {
-        onInitialize(new Key(id), consumer);
+        onInitialize(BlackboardKey.lookup(id), consumer);
     }
 
-    @SuppressWarnings("unchecked")
-    protected void onInitialize( Key key, Consumer consumer ) {
+    /**
+     *  Calls the specified consumer when the value associated with the key
+     *  has been set or calls it immediately if it is already set.
+     */
+    public <T> void onInitialize( BlackboardKey<T> key, Consumer<T> consumer ) {
         // See if it's already set
-        Object existing = index.get(key);
+        Object existing = getValue(key);
         if( log.isTraceEnabled() ) {
             log.trace("onInitialize(" + key + ", " + consumer + ") existing:" + existing);
         }
         if( existing != null ) {
-            consumer.accept(existing);
+            consumer.accept(key.getType().cast(existing));
             return;
         }
-        addBlackboardListener(new OnInitialize(key, consumer));
+        addObserver(key, new OnInitialize(key, consumer));
     }
 
-    protected void fireUpdate( Key key, Object value ) {
-        if( listeners.isEmpty() ) {
-            return;
+    /**
+     *  Returns a VersionedReference to the value associated with 'type'.
+     *  The reference can be checked for changes with update() without
+     *  any locking, which makes it a cheap way for other threads to notice
+     *  when a value has changed.  Note: get() will return null if the
+     *  value hasn't been set yet.
+     */
+    public <T> VersionedReference<T> createReference( Class<T> type ) {
+        return createReference(BlackboardKey.lookup(type));
+    }
+
+    /**
+     *  Returns a VersionedReference to the value associated with 'id' and
+     *  'type'.
+     */
+    public <T> VersionedReference<T> createReference( String id, Class<T> type ) {
+        return createReference(BlackboardKey.lookup(id, type));
+    }
+
+    /**
+     *  Returns a VersionedReference to the value associated with the key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> VersionedReference<T> createReference( BlackboardKey<T> key ) {
+        // Referenced entries are never removed since the reference
+        // would stop seeing changes.
+        Entry entry = getEntry(key);
+        while( !entry.reference() ) {
+            entry = replaceRemoved(entry);
         }
-        for( BlackboardListener l : listeners ) {
-            l.valueSet(key.id, key.type, value);
+        return new VersionedReference<>((VersionedObject<T>)entry);
+    }
+
+    protected void addObserver( BlackboardKey key, KeyObserver observer ) {
+        Entry entry = getEntry(key);
+        while( !entry.addObserver(observer) ) {
+            entry = replaceRemoved(entry);
         }
     }
 
-    private static class Key {
-        String id;
-        Class type;
+    protected Entry getEntry( BlackboardKey key ) {
+        Entry result = entries.get(key);
+        if( result == null ) {
+            result = new Entry(key);
+            Entry existing = entries.putIfAbsent(key, result);
+            if( existing != null ) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    /**
+     *  Called when an operation finds that the entry it was given has
+     *  been removed in the mean time.  Makes sure the removed entry is
+     *  no longer in the index and returns the key's current entry.
+     */
+    private Entry replaceRemoved( Entry entry ) {
+        entries.remove(entry.key, entry);
+        return getEntry(entry.key);
+    }
+
+    /**
+     *  Removes the entry from the index if it has no value, observers,
+     *  references, or pending notifications.
+     */
+    protected void removeIfUnused( Entry entry ) {
+        if( entry.retire() ) {
+            entries.remove(entry.key, entry);
+        }
+    }
+
+    protected void fireUpdate( BlackboardKey key, Object value ) {
+        if( deferredNotifications ) {
+            deferUpdate(key);
+            return;
+        }
+        notifyListeners(key, entries.get(key), value);
+    }
 
-        public Key( Class type ) {
-            this(type.getName(), type);
+    protected void deferUpdate( BlackboardKey key ) {
+        Entry entry = getEntry(key);
+        if( !entry.pending.compareAndSet(false, true) ) {
+            // Already waiting and it will pick up the latest value
+            return;
         }
+        pending.add(entry);
+        Executor executor = notificationExecutor;
+        if( executor != null && deliveryScheduled.compareAndSet(false, true) ) {
+            executor.execute(deliveryTask);
+        }
+    }
 
-        public Key( String id ) {
-            this(id, Object.class);
+    protected void notifyListeners( BlackboardKey key, Entry entry, Object value ) {
+        KeyObserver[] observers = entry == null ? NO_OBSERVERS : entry.observers;
+        Registration[] generic = listeners;
+        String id = key.getId();
+        Class type = key.getType();
+
+        // Merge the key's observers with the generic listeners so that
+        // everything is notified in the order it was added.
+        int i = 0;
+        int j = 0;
+        while( i < observers.length || j < generic.length ) {
+            if( j == generic.length || (i < observers.length && observers[i].sequence < generic[j].sequence) ) {
+                observers[i++].valueSet(id, type, value);
+            } else {
+                generic[j++].listener.valueSet(id, type, value);
+            }
         }
+    }
+
+    /**
+     *  @deprecated Use get(BlackboardKey) instead.
+     */
+    @Deprecated
+    @SuppressWarnings("unchecked")
+    protected Object get( Key key ) {
+        return get(key.toBlackboardKey());
+    }
+
+    /**
+     *  @deprecated Use get(BlackboardKey, Callable) instead.
+     */
+    @Deprecated
+    @SuppressWarnings("unchecked")
+    protected Object get( Key key, Callable initialValue ) {
+        return get(key.toBlackboardKey(), initialValue);
+    }
+
+    /**
+     *  @deprecated Use set(BlackboardKey, Object) instead.
+     */
+    @Deprecated
+    protected void set( Key key, Object value ) {
+        setValue(key.toBlackboardKey(), value);
+    }
+
+    /**
+     *  @deprecated Use update(BlackboardKey, Object) instead.
+     */
+    @Deprecated
+    protected void update( Key key, Object value ) {
+        updateValue(key.toBlackboardKey(), value);
+    }
+
+    /**
+     *  @deprecated Use watch(BlackboardKey, Consumer) instead.
+     */
+    @Deprecated
+    @SuppressWarnings("unchecked")
+    protected void watch( Key key, Consumer consumer ) {
+        watch(key.toBlackboardKey(), consumer);
+    }
+
+    /**
+     *  @deprecated Use unwatch(BlackboardKey, Consumer) instead.
+     */
+    @Deprecated
+    @SuppressWarnings("unchecked")
+    protected void unwatch( Key key, Consumer consumer ) {
+        unwatch(key.toBlackboardKey(), consumer);
+    }
+
+    /**
+     *  @deprecated Use onInitialize(BlackboardKey, Consumer) instead.
+     */
+    @Deprecated
+    @SuppressWarnings("unchecked")
+    protected void onInitialize( Key key, Consumer consumer ) {
+        onInitialize(key.toBlackboardKey(), consumer);
+    }
+
+    /**
+     *  @deprecated Use fireUpdate(BlackboardKey, Object) instead.
+     */
+    @Deprecated
+    protected void fireUpdate( Key key, Object value ) {
+        fireUpdate(key.toBlackboardKey(), value);
+    }
+
+    /**
+     *  The key type used before BlackboardKey.  Only kept for the deprecated
+     *  methods above.
+     */
+    private static class Key {
+        String id;
+        Class type;
 
         public Key( String id, Class type ) {
             this.id = id;
             this.type = type;
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(id, type);
+        @SuppressWarnings("unchecked")
+        public BlackboardKey toBlackboardKey() {
+            return BlackboardKey.lookup(id, type);
         }
+    }
 
-        @Override
-        public boolean equals( Object o ) {
-            if( o == this ) {
-                return true;
+    /**
+     *  Holds the current value, version, and observers for a specific key.
+     *  Reads are lock-free.  Writes are synchronized so that the version is
+     *  incremented once for every change.  An entry that is no longer used
+     *  is retired and removed from the index.  Writes to a retired entry
+     *  return false so that the caller can retry with the key's new entry.
+     */
+    protected static class Entry implements VersionedObject<Object> {
+        private final BlackboardKey key;
+        private volatile Object value;
+        private volatile long version;
+        private volatile KeyObserver[] observers = NO_OBSERVERS;
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private boolean referenced;
+        private boolean retired;
+
+        public Entry( BlackboardKey key ) {
+            this.key = key;
+        }
+
+        /**
+         *  Sets the value if it isn't already set to something else.  Returns
+         *  false if the entry has been retired.
+         *
+         *  @throws IllegalArgumentException if a different value is already set.
+         */
+        public synchronized boolean set( Object value ) {
+            if( retired ) {
+                return false;
+            }
+            Object existing = this.value;
+            if( existing != null && !Objects.equals(value, existing) ) {
+                throw new IllegalArgumentException("There is already a value set for:" + key);
             }
-            if( o == null || o.getClass() != getClass() ) {
+            this.value = value;
+            version++;
+            return true;
+        }
+
+        /**
+         *  Replaces the value.  Returns false if the entry has been retired.
+         */
+        public synchronized boolean update( Object value ) {
+            if( retired ) {
                 return false;
             }
-            Key other = (Key)o;
-            if( !Objects.equals(other.id, id) ) {
+            this.value = value;
+            version++;
+            return true;
+        }
+
+        /**
+         *  Sets the value if it isn't already set and returns the entry's
+         *  resulting value.  Returns null if the entry has been retired.
+         */
+        public synchronized Object putIfAbsent( Object value ) {
+            if( retired ) {
+                return null;
+            }
+            if( this.value == null ) {
+                this.value = value;
+                version++;
+            }
+            return this.value;
+        }
+
+        /**
+         *  Marks the entry as having a VersionedReference so that it is
+         *  never retired.  Returns false if the entry has already been retired.
+         */
+        public synchronized boolean reference() {
+            if( retired ) {
                 return false;
             }
-            if( !Objects.equals(other.type, type) ) {
+            referenced = true;
+            return true;
+        }
+
+        /**
+         *  Retires the entry if it has no value, observers, references, or
+         *  pending notifications and returns true if it was retired.
+         */
+        public synchronized boolean retire() {
+            if( retired || value != null || observers.length > 0 || referenced || pending.get() ) {
                 return false;
             }
+            retired = true;
             return true;
         }
 
         @Override
-        public String toString() {
-            return MoreObjects.toStringHelper(getClass().getSimpleName())
-                .omitNullValues()
-                .add("id", id)
-                .add("type", type)
-                .toString();
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public Object getObject() {
+            return value;
+        }
+
+        @Override
+        public VersionedReference<Object> createReference() {
+            return new VersionedReference<>(this);
+        }
+
+        /**
+         *  Adds the observer.  Returns false if the entry has been retired.
+         */
+        public synchronized boolean addObserver( KeyObserver l ) {
+            if( retired ) {
+                return false;
+            }
+            KeyObserver[] array = Arrays.copyOf(observers, observers.length + 1);
+            array[array.length - 1] = l;
+            observers = array;
+            return true;
         }
+
+        public synchronized void removeObserver( KeyObserver l ) {
+            KeyObserver[] array = observers;
+            for( int i = 0; i < array.length; i++ ) {
+                if( array[i] != l ) {
+                    continue;
+                }
+                KeyObserver[] result = new KeyObserver[array.length - 1];
+                System.arraycopy(array, 0, result, 0, i);
+                System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+                observers = result;
+                return;
+            }
+        }
+    }
+
+    private static final class Registration {
+        private final BlackboardListener listener;
+        private final long sequence;
+
+        public Registration( BlackboardListener listener, long sequence ) {
+            this.listener = listener;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     *  A listener for a specific key, numbered like the generic listeners
+     *  so that notification order matches the order they were added.
+     */
+    protected abstract class KeyObserver implements BlackboardListener {
+        protected final long sequence = registrations.getAndIncrement();
     }
 
-    protected class OnInitialize implements BlackboardListener {
-        private Key filter;
+    protected class OnInitialize extends KeyObserver {
+        private BlackboardKey filter;
         private Consumer consumer;
 
-        public OnInitialize( Key filter, Consumer consumer ) {
+        public OnInitialize( BlackboardKey filter, Consumer consumer ) {
             this.filter = filter;
             this.consumer = consumer;
         }
 
         @SuppressWarnings("unchecked")
         public void valueSet( String id, Class type, Object value ) {
-            if( !Objects.equals(new Key(id, type), filter) ) {
+            if( !filter.matches(id, type) ) {
                 return;
             }
             // Else it's the real deal
             consumer.accept(value);
 
             // and remove ourselves
-            removeBlackboardListener(this);
+            getEntry(filter).removeObserver(this);
         }
     }
 
-    protected class ValueObserver implements BlackboardListener {
-        private Key filter;
+    protected class ValueObserver extends KeyObserver {
+        private BlackboardKey filter;
         private Consumer consumer;
 
-        public ValueObserver( Key filter, Consumer consumer ) {
+        public ValueObserver( BlackboardKey filter, Consumer consumer ) {
             this.filter = filter;
             this.consumer = consumer;
         }
 
         @SuppressWarnings("unchecked")
         public void valueSet( String id, Class type, Object value ) {
-            if( !Objects.equals(new Key(id, type), filter) ) {
+            if( !filter.matches(id, type) ) {
                 return;
             }
             consumer.accept(value);
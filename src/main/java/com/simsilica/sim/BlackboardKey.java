@@ -0,0 +1,185 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ *  A reusable handle to a Blackboard value.  Keys made with create() are
+ *  interned so that there is only ever one of them for a given id and type
+ *  and they can usually be compared by identity.  Their hash codes are computed
+ *  only once.  Code that reads or writes the same blackboard value every frame
+ *  can create the key once and use the Blackboard methods that take a
+ *  BlackboardKey to avoid any per-call allocation.
+ *
+ *  <p>Since interned keys are kept for the life of the application, they are
+ *  meant for a well-known set of ids and types and not for ids that are generated
+ *  at runtime without bound.  The Blackboard methods that take a String id or
+ *  a Class look values up with temporary keys that are never interned, so
+ *  they are still fine for those.</p>
+ *
+ *  @author    Paul Speed
+ */
+public final class BlackboardKey<T> {
+
+    private static final ConcurrentHashMap<Class, ConcurrentHashMap<String, BlackboardKey>> keys
+            = new ConcurrentHashMap<>();
+
+    private final String id;
+    private final Class<T> type;
+    private final int hash;
+
+    private BlackboardKey( String id, Class<T> type ) {
+        this.id = id;
+        this.type = type;
+        this.hash = 31 * id.hashCode() + type.hashCode();
+    }
+
+    /**
+     *  Returns the interned key for a value that is identified only by its type.
+     *  This refers to the same value as Blackboard.get(Class), etc..
+     */
+    public static <T> BlackboardKey<T> create( Class<T> type ) {
+        return create(type.getName(), type);
+    }
+
+    /**
+     *  Returns the interned key for an untyped value identified by id.
+     *  This refers to the same value as Blackboard.get(String), etc..
+     */
+    public static BlackboardKey<Object> create( String id ) {
+        return create(id, Object.class);
+    }
+
+    /**
+     *  Returns the interned key for a value identified by both id and type.
+     *  This refers to the same value as Blackboard.get(String, Class), etc..
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BlackboardKey<T> create( String id, Class<T> type ) {
+        if( id == null ) {
+            throw new IllegalArgumentException("ID cannot be null");
+        }
+        if( type == null ) {
+            throw new IllegalArgumentException("Type cannot be null");
+        }
+        ConcurrentHashMap<String, BlackboardKey> byId = keys.get(type);
+        if( byId == null ) {
+            byId = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, BlackboardKey> existing = keys.putIfAbsent(type, byId);
+            if( existing != null ) {
+                byId = existing;
+            }
+        }
+        BlackboardKey result = byId.get(id);
+        if( result == null ) {
+            result = new BlackboardKey<>(id, type);
+            BlackboardKey existing = byId.putIfAbsent(id, result);
+            if( existing != null ) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    /**
+     *  Returns a key equal to the interned key for the specified id and type
+     *  without interning it.  Used by Blackboard's String and Class based
+     *  methods so that they don't hold onto every id or class they see.
+     */
+    static <T> BlackboardKey<T> lookup( Class<T> type ) {
+        return lookup(type.getName(), type);
+    }
+
+    static BlackboardKey<Object> lookup( String id ) {
+        return lookup(id, Object.class);
+    }
+
+    static <T> BlackboardKey<T> lookup( String id, Class<T> type ) {
+        if( id == null ) {
+            throw new IllegalArgumentException("ID cannot be null");
+        }
+        if( type == null ) {
+            throw new IllegalArgumentException("Type cannot be null");
+        }
+        return new BlackboardKey<>(id, type);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     *  Returns true if this key has the specified id and type.
+     */
+    public boolean matches( String id, Class type ) {
+        return this.type == type && this.id.equals(id);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+        // Interned keys will almost always be the same instance
+        if( o == this ) {
+            return true;
+        }
+        if( !(o instanceof BlackboardKey) ) {
+            return false;
+        }
+        BlackboardKey other = (BlackboardKey)o;
+        return hash == other.hash && type == other.type && id.equals(other.id);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass().getSimpleName())
+            .omitNullValues()
+            .add("id", id)
+            .add("type", type)
+            .toString();
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.io.*;
+import java.util.*;
+
+import org.slf4j.*;
+
+/**
+ *  Records the inputs of a running GameSystemManager to a compact
+ *  binary log so that the session can be replayed later with a
+ *  FrameReplayer.  For every frame, the recorder writes the exact time
+ *  delta that the frame was advanced by and, in order, the type of every
+ *  task that the TaskDispatcher ran during that frame.
+ *
+ *  <p>The tasks themselves can't be serialized so only their types are
+ *  recorded.  During replay, a FrameReplayer.TaskFactory is used to
+ *  recreate equivalent tasks from the recorded type names.  Tasks that are
+ *  lambdas or anonymous classes get generated class names that may differ
+ *  from build to build, so tasks that matter for replay should be
+ *  regular named classes.</p>
+ *
+ *  <p>A recorder is written to only from the update thread.  It is set
+ *  using GameSystemManager.setFrameRecorder().  If writing fails then the
+ *  error is logged once and the recorder stops recording instead of failing
+ *  every frame.  The error is available from getFailure().</p>
+ *
+ *  @author    Paul Speed
+ */
+public class FrameRecorder implements Closeable {
+
+    static Logger log = LoggerFactory.getLogger(FrameRecorder.class);
+
+    static final int MAGIC = 0x53494F52; // "SIOR"
+    static final int VERSION = 1;
+
+    static final int TAG_END = 0;
+    static final int TAG_FRAME = 1;
+    static final int TAG_TASK = 2;
+    static final int TAG_TYPE = 3;
+
+    private final DataOutputStream out;
+    private final Map<Class, Integer> typeIds = new HashMap<>();
+    private long frameCount;
+    private long taskCount;
+    private boolean closed;
+    private IOException failure;
+
+    public FrameRecorder( File file ) throws IOException {
+        this(new FileOutputStream(file));
+    }
+
+    public FrameRecorder( OutputStream out ) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 65536));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+    }
+
+    /**
+     *  Called by the GameSystemManager at the start of every frame with
+     *  the number of nanoseconds that the frame's SimTime was advanced.
+     */
+    public void frameStarted( long deltaNanos ) {
+        if( failure != null ) {
+            return;
+        }
+        try {
+            out.writeByte(TAG_FRAME);
+            writeVarLong(deltaNanos);
+            frameCount++;
+        } catch( IOException e ) {
+            failed(e);
+        }
+    }
+
+    /**
+     *  Called by the TaskDispatcher just before it runs a task of the
+     *  specified type.
+     */
+    public void taskExecuted( Class type ) {
+        if( failure != null ) {
+            return;
+        }
+        try {
+            Integer id = typeIds.get(type);
+            if( id == null ) {
+                id = typeIds.size();
+                typeIds.put(type, id);
+                out.writeByte(TAG_TYPE);
+                writeVarLong(id);
+                out.writeUTF(type.getName());
+            }
+            out.writeByte(TAG_TASK);
+            writeVarLong(id);
+            taskCount++;
+        } catch( IOException e ) {
+            failed(e);
+        }
+    }
+
+    private void failed( IOException e ) {
+        log.error("Error writing frame recording, recording stopped after " + frameCount + " frames", e);
+        failure = e;
+    }
+
+    /**
+     *  Returns the error that stopped recording or null if recording
+     *  has not failed.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     *  Writes the end marker and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if( closed ) {
+            return;
+        }
+        closed = true;
+        if( failure != null ) {
+            // The recording is incomplete anyway
+            out.close();
+            return;
+        }
+        out.writeByte(TAG_END);
+        out.close();
+    }
+
+    /**
+     *  Writes a zig-zag encoded variable length long so that small
+     *  values of either sign take only a byte or two.
+     */
+    private void writeVarLong( long value ) throws IOException {
+        long v = (value << 1) ^ (value >> 63);
+        while( (v & ~0x7FL) != 0 ) {
+            out.writeByte((int)((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int)v);
+    }
+
+    static long readVarLong( DataInputStream in ) throws IOException {
+        long v = 0;
+        int shift = 0;
+        while( true ) {
+            int b = in.readUnsignedByte();
+            v |= (long)(b & 0x7F) << shift;
+            if( (b & 0x80) == 0 ) {
+                break;
+            }
+            shift += 7;
+            if( shift > 63 ) {
+                throw new IOException("Malformed variable length value");
+            }
+        }
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.io.*;
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.simsilica.util.TimeHistogram;
+import com.simsilica.util.TimeStats;
+
+/**
+ *  Replays a log written by a FrameRecorder against a GameSystemManager
+ *  as fast as possible.  Each recorded frame is run with GameSystemManager.step()
+ *  using the exact recorded time delta and, before each frame, the tasks that
+ *  ran during the recorded frame are recreated by the TaskFactory and given
+ *  to the manager's TaskDispatcher in their original order.  This makes it
+ *  possible to benchmark system changes against load captured from a real
+ *  session.
+ *
+ *  <p>For the tasks to run in the same frames as they were recorded,
+ *  the TaskDispatcher should not have a per-frame task or time budget set
+ *  during replay.  Tasks that the systems themselves enqueue during replay
+ *  are dropped by the TaskDispatcher because the recording already contains
+ *  them.  See TaskDispatcher.getSuppressedCount().</p>
+ *
+ *  @author    Paul Speed
+ */
+public class FrameReplayer {
+
+    static Logger log = LoggerFactory.getLogger(FrameReplayer.class);
+
+    /**
+     *  Creates the task to run for a recorded task type.
+     */
+    public interface TaskFactory {
+        /**
+         *  Returns a task to run for the specified recorded type name or
+         *  null if the task should be skipped.
+         */
+        public Runnable createTask( String type );
+    }
+
+    private final DataInputStream in;
+    private TaskFactory taskFactory;
+    private final List<String> types = new ArrayList<>();
+    private final TimeHistogram frameTimes = new TimeHistogram();
+
+    private long frameCount;
+    private long taskCount;
+    private long skippedTaskCount;
+    private long simulatedNanos;
+    private long wallNanos;
+
+    public FrameReplayer( File file ) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    public FrameReplayer( InputStream in ) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 65536));
+        if( this.in.readInt() != FrameRecorder.MAGIC ) {
+            throw new IOException("Not a frame recording");
+        }
+        int version = this.in.readUnsignedByte();
+        if( version != FrameRecorder.VERSION ) {
+            throw new IOException("Unsupported frame recording version:" + version);
+        }
+    }
+
+    /**
+     *  Sets the factory used to recreate recorded tasks.  If no factory
+     *  is set then all recorded tasks are skipped and only the frame timing
+     *  is replayed.
+     */
+    public void setTaskFactory( TaskFactory taskFactory ) {
+        this.taskFactory = taskFactory;
+    }
+
+    public TaskFactory getTaskFactory() {
+        return taskFactory;
+    }
+
+    /**
+     *  Replays the whole recording against the specified systems, initializing
+     *  and starting them first if needed.  The systems are left running when
+     *  this method returns.
+     */
+    public void replay( GameSystemManager systems ) throws IOException {
+        if( !systems.isInitialized() ) {
+            systems.initialize();
+        }
+        if( !systems.isStarted() ) {
+            systems.start();
+        }
+        TaskDispatcher dispatcher = systems.get(TaskDispatcher.class, true);
+        dispatcher.setReplaying(true);
+        try {
+            replay(systems, dispatcher);
+        } finally {
+            dispatcher.setReplaying(false);
+            in.close();
+        }
+
+        if( log.isInfoEnabled() ) {
+            log.info(String.format("Replayed %d frames (%d tasks, %d skipped, %d suppressed) in %.03f ms, %.02f x real time",
+                                   frameCount, taskCount, skippedTaskCount, dispatcher.getSuppressedCount(),
+                                   wallNanos / 1000000.0, getSimulationSpeed()));
+        }
+    }
+
+    private void replay( GameSystemManager systems, TaskDispatcher dispatcher ) throws IOException {
+        long start = System.nanoTime();
+        int tag = in.readUnsignedByte();
+        while( tag != FrameRecorder.TAG_END ) {
+            if( tag != FrameRecorder.TAG_FRAME ) {
+                throw new IOException("Expected frame but found:" + tag);
+            }
+            long delta = FrameRecorder.readVarLong(in);
+
+            // Queue up all of the tasks that ran during this frame
+            tag = in.readUnsignedByte();
+            while( tag == FrameRecorder.TAG_TASK || tag == FrameRecorder.TAG_TYPE ) {
+                if( tag == FrameRecorder.TAG_TYPE ) {
+                    int id = (int)FrameRecorder.readVarLong(in);
+                    if( id != types.size() ) {
+                        throw new IOException("Out of order type id:" + id);
+                    }
+                    types.add(in.readUTF());
+                } else {
+                    int id = (int)FrameRecorder.readVarLong(in);
+                    Runnable task = taskFactory == null ? null : taskFactory.createTask(types.get(id));
+                    if( task != null ) {
+                        dispatcher.replay(task);
+                        taskCount++;
+                    } else {
+                        skippedTaskCount++;
+                    }
+                }
+                tag = in.readUnsignedByte();
+            }
+
+            long frameStart = System.nanoTime();
+            systems.step(delta);
+            frameTimes.record(System.nanoTime() - frameStart);
+            frameCount++;
+            simulatedNanos += delta;
+        }
+        wallNanos += System.nanoTime() - start;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     *  Returns the number of recorded tasks that the task factory did not
+     *  recreate.
+     */
+    public long getSkippedTaskCount() {
+        return skippedTaskCount;
+    }
+
+    /**
+     *  Returns the total amount of simulation time that was replayed.
+     */
+    public long getSimulatedNanos() {
+        return simulatedNanos;
+    }
+
+    /**
+     *  Returns the real time the replay took.
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     *  Returns the number of simulated seconds replayed per second of
+     *  real time.
+     */
+    public double getSimulationSpeed() {
+        return wallNanos == 0 ? 0 : (double)simulatedNanos / wallNanos;
+    }
+
+    /**
+     *  Returns the statistics of the time spent running each replayed frame.
+     */
+    public TimeStats getFrameStats() {
+        return frameTimes.getStats();
+    }
+}
@@ -52,6 +52,36 @@ public class GameLoop {
 
     public static final long FPS_60 = 16666667L;
 
+    /**
+     *  Determines how the game loop advances the game systems' time.
+     */
+    public enum StepMode {
+        /**
+         *  Calls update() once whenever at least one update interval has
+         *  passed, using the real elapsed time as the frame's tpf.  This is
+         *  the default.
+         */
+        Variable,
+
+        /**
+         *  Accumulates real elapsed time and advances the systems in
+         *  exact update interval sized steps, running as many steps as are
+         *  needed to catch up (up to the max catch up steps).  Every frame
+         *  sees the same tpf.
+         */
+        Fixed,
+
+        /**
+         *  Advances the systems in exact update interval sized steps as fast
+         *  as possible without waiting for real time to pass.  The systems'
+         *  SimTime follows a virtual clock that moves forward by one update
+         *  interval per frame.  This is useful for headless batch simulations
+         *  like AI training or balance testing.  getSimulationSpeed() reports
+         *  how much faster than real time the simulation is running.
+         */
+        MaxSpeed
+    }
+
     static Logger log = LoggerFactory.getLogger(GameLoop.class);
 
     private final GameSystemManager systems;
@@ -59,12 +89,33 @@ public class GameLoop {
 
     private long updateRate;
     private LoopSleepStrategy sleepStrategy = new LegacyLoopSleepStrategy(FPS_60);
+    private volatile StepMode stepMode = StepMode.Variable;
+    private volatile int maxCatchUpSteps = 5;
+
+    /**
+     *  Time and steps dropped by fixed step mode because the loop
+     *  could not keep up.
+     */
+    private AtomicLong droppedSteps = new AtomicLong();
+    private AtomicLong droppedNanos = new AtomicLong();
+
+    /**
+     *  Per-frame timing information for monitoring loop health.
+     */
+    private final LoopHistory history = new LoopHistory(1024);
 
     /**
      *  Keep track of the last update time in a thread safe way.
      */
     private AtomicLong lastStepTime = new AtomicLong();
 
+    /**
+     *  The real time and step time when the loop started running frames
+     *  for calculating the simulation speed.
+     */
+    private volatile long runStartTime;
+    private volatile long runStartStepTime;
+
     /**
      *  Convenient wrapper object to provide sim time outside
      *  of the run thread.
@@ -220,6 +271,86 @@ public class GameLoop {
         return sleepStrategy;
     }
 
+    /**
+     *  Returns the loop's frame history that records, for every frame, the
+     *  scheduled and actual start times, update duration, time spent sleeping,
+     *  and missed frames.  The history can be read from any thread without
+     *  blocking the loop and LoopHistory listeners can be used to be notified
+     *  as new frames are recorded.
+     */
+    public LoopHistory getLoopHistory() {
+        return history;
+    }
+
+    /**
+     *  Sets the mode the loop uses to advance time.  Defaults to StepMode.Variable.
+     *  This must be set before the loop is started.
+     */
+    public void setStepMode( StepMode stepMode ) {
+        if( stepMode == null ) {
+            throw new IllegalArgumentException("Step mode cannot be null");
+        }
+        this.stepMode = stepMode;
+    }
+
+    public StepMode getStepMode() {
+        return stepMode;
+    }
+
+    /**
+     *  Sets the maximum number of fixed steps that will be run in one pass
+     *  to catch up after a slow frame or pause.  Any whole steps still pending
+     *  after that are dropped and reported through getDroppedStepCount() and
+     *  getDroppedTimeNanos().  This keeps the cost of catching up bounded so
+     *  that a slow frame doesn't lead to even slower frames.  Defaults to 5.
+     *  Only used in StepMode.Fixed.
+     */
+    public void setMaxCatchUpSteps( int maxCatchUpSteps ) {
+        if( maxCatchUpSteps < 1 ) {
+            throw new IllegalArgumentException("Max catch up steps must be at least 1");
+        }
+        this.maxCatchUpSteps = maxCatchUpSteps;
+    }
+
+    public int getMaxCatchUpSteps() {
+        return maxCatchUpSteps;
+    }
+
+    /**
+     *  Returns the total number of fixed steps that have been dropped
+     *  because the loop could not keep up.
+     */
+    public long getDroppedStepCount() {
+        return droppedSteps.get();
+    }
+
+    /**
+     *  Returns the total amount of time in nanoseconds that has been dropped
+     *  because the loop could not keep up.
+     */
+    public long getDroppedTimeNanos() {
+        return droppedNanos.get();
+    }
+
+    /**
+     *  Returns the number of seconds of simulation time that have passed
+     *  per second of real time since the loop started.  This will be close
+     *  to 1.0 for the variable and fixed step modes (less if the loop can't
+     *  keep up) and is the throughput of the simulation in StepMode.MaxSpeed.
+     *  Returns 0 if the loop hasn't started yet.
+     */
+    public double getSimulationSpeed() {
+        long start = runStartTime;
+        if( start == 0 ) {
+            return 0;
+        }
+        long real = System.nanoTime() - start;
+        if( real <= 0 ) {
+            return 0;
+        }
+        return (double)(lastStepTime.get() - runStartStepTime) / real;
+    }
+
     /**
      *  Use our own thread instead of a java executor because we need
      *  more control over the update loop.  ScheduledThreadPoolExecutor will
@@ -287,14 +418,41 @@ public class GameLoop {
                 return;
             }
 
+            runStartStepTime = systems.getStepTime().getTime();
+            lastStepTime.set(runStartStepTime);
+            runStartTime = System.nanoTime();
+
+            switch( stepMode ) {
+                case Fixed:
+                    runFixedSteps();
+                    break;
+                case MaxSpeed:
+                    runMaxSpeedSteps();
+                    break;
+                case Variable:
+                default:
+                    runVariableSteps();
+                    break;
+            }
+
+            // Stop the systems
+            systems.stop();
+
+            // Terminate the systems
+            systems.terminate();
+        }
+
+        protected void runVariableSteps() {
             long lastTime = System.nanoTime();
             long lastUpdateDelta = 0;
+            long sleepTime = 0;
             while( go.get() ) {
                 long time = System.nanoTime();
                 long delta = time - lastTime;
 
                 if( delta >= updateRate ) {
                     // Time to update
+                    long scheduled = lastTime + updateRate;
                     lastTime = time;
                     systems.update();
 
@@ -303,6 +461,9 @@ public class GameLoop {
                     // method may still want to know how long the last one took.
                     lastUpdateDelta = System.nanoTime() - time;
                     lastStepTime.set(systems.getStepTime().getTime());
+                    history.record(systems.getStepTime().getFrame(), scheduled, time,
+                                   lastUpdateDelta, sleepTime, (time - scheduled) / updateRate);
+                    sleepTime = 0;
                     continue;
                 }
                 try {
@@ -311,13 +472,75 @@ public class GameLoop {
                 } catch( InterruptedException e ) {
                     throw new RuntimeException("Interrupted sleeping", e);
                 }
+                sleepTime += System.nanoTime() - time;
             }
+        }
 
-            // Stop the systems
-            systems.stop();
+        protected void runFixedSteps() {
+            long lastTime = System.nanoTime();
+            long lastUpdateDelta = 0;
 
-            // Terminate the systems
-            systems.terminate();
+            // Real time that has passed but that the systems haven't
+            // been stepped through yet.
+            long accumulated = 0;
+            long sleepTime = 0;
+            while( go.get() ) {
+                long time = System.nanoTime();
+                accumulated += time - lastTime;
+                lastTime = time;
+
+                if( accumulated >= updateRate ) {
+                    // The first pending step was due when the accumulator crossed
+                    long scheduled = time - (accumulated - updateRate);
+                    long missed = 0;
+                    int steps = 0;
+                    int maxSteps = maxCatchUpSteps;
+                    while( accumulated >= updateRate && steps < maxSteps ) {
+                        systems.step(updateRate);
+                        accumulated -= updateRate;
+                        steps++;
+                    }
+                    if( accumulated >= updateRate ) {
+                        // We can't keep up so drop the whole steps and keep
+                        // the fractional part for the next pass.  Trying to catch
+                        // up on everything would just make the next pass longer.
+                        long dropped = accumulated - (accumulated % updateRate);
+                        accumulated -= dropped;
+                        long count = dropped / updateRate;
+                        missed = count;
+                        droppedSteps.addAndGet(count);
+                        droppedNanos.addAndGet(dropped);
+                        if( log.isWarnEnabled() ) {
+                            log.warn(String.format("Game loop fell behind, dropped %d steps (%.03f ms)",
+                                                   count, dropped / 1000000.0));
+                        }
+                    }
+                    lastUpdateDelta = System.nanoTime() - time;
+                    lastStepTime.set(systems.getStepTime().getTime());
+                    history.record(systems.getStepTime().getFrame(), scheduled, time,
+                                   lastUpdateDelta, sleepTime, missed);
+                    sleepTime = 0;
+                    continue;
+                }
+                try {
+                    // As far as the sleep strategy is concerned, the last 'update' was
+                    // when the remaining accumulated time started.
+                    sleepStrategy.loopSleep(time, accumulated, time - accumulated, lastUpdateDelta);
+                } catch( InterruptedException e ) {
+                    throw new RuntimeException("Interrupted sleeping", e);
+                }
+                sleepTime += System.nanoTime() - time;
+            }
+        }
+
+        protected void runMaxSpeedSteps() {
+            while( go.get() ) {
+                long time = System.nanoTime();
+                systems.step(updateRate);
+                lastStepTime.set(systems.getStepTime().getTime());
+                history.record(systems.getStepTime().getFrame(), time, time,
+                               System.nanoTime() - time, 0, 0);
+            }
         }
     }
 }
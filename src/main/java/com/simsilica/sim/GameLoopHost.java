@@ -0,0 +1,473 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.*;
+
+/**
+ *  Runs the update loops of many GameSystemManagers on a small shared
+ *  set of worker threads.  Where each GameLoop has its own dedicated
+ *  thread, a GameLoopHost schedules each hosted manager by the time its
+ *  next frame is due and runs whichever frames are due on whichever
+ *  worker is free.  This is useful for servers that run many small
+ *  instanced simulations where one thread per simulation would mostly
+ *  be spent context switching.
+ *
+ *  <p>Each hosted manager keeps its own update rate and SimTime and is
+ *  initialized, started, updated, stopped, and terminated on the worker
+ *  threads.  A given manager is only ever updated by one worker at a time
+ *  but successive frames may run on different workers.  Frames that are
+ *  due at the same time are run earliest-due first.  If a manager's update()
+ *  throws an exception then only that loop is stopped, its systems are
+ *  stopped and terminated, and the exception is available from
+ *  HostedLoop.getFailure().</p>
+ *
+ *  <p>The worker threads are created from the supplied ThreadFactory.
+ *  On JVMs that support them, a virtual thread factory can be passed to
+ *  run one lightweight thread per worker.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class GameLoopHost {
+
+    static Logger log = LoggerFactory.getLogger(GameLoopHost.class);
+
+    private final ThreadFactory threadFactory;
+    private final Thread[] workers;
+    private final DelayQueue<HostedLoop> queue = new DelayQueue<>();
+    private final Set<HostedLoop> loops = ConcurrentHashMap.newKeySet();
+    private volatile boolean started;
+    private volatile boolean shutdown;
+
+    /**
+     *  Creates a host with one worker thread per available processor.
+     */
+    public GameLoopHost() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public GameLoopHost( int threadCount ) {
+        this(threadCount, new DefaultThreadFactory());
+    }
+
+    public GameLoopHost( int threadCount, ThreadFactory threadFactory ) {
+        if( threadCount < 1 ) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        if( threadFactory == null ) {
+            throw new IllegalArgumentException("Thread factory cannot be null");
+        }
+        this.threadFactory = threadFactory;
+        this.workers = new Thread[threadCount];
+    }
+
+    public int getThreadCount() {
+        return workers.length;
+    }
+
+    /**
+     *  Starts the worker threads.  Loops added before the host is started
+     *  will begin running once it is.
+     */
+    public synchronized void start() {
+        if( started ) {
+            return;
+        }
+        if( shutdown ) {
+            throw new IllegalStateException("Host has been shut down");
+        }
+        for( int i = 0; i < workers.length; i++ ) {
+            workers[i] = threadFactory.newThread(new Worker());
+            workers[i].start();
+        }
+        started = true;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     *  Adds the specified GameSystemManager to this host to be updated
+     *  at 60 FPS.
+     */
+    public HostedLoop host( GameSystemManager systems ) {
+        return host(systems, GameLoop.FPS_60);
+    }
+
+    /**
+     *  Adds the specified GameSystemManager to this host to be updated
+     *  at the specified rate.  The manager will be initialized and started
+     *  (if it hasn't been already) on one of the host's worker threads.
+     *  The returned HostedLoop can be used to stop the loop and to monitor
+     *  its frame timing.
+     */
+    public HostedLoop host( GameSystemManager systems, long updateRateNanos ) {
+        if( shutdown ) {
+            throw new IllegalStateException("Host has been shut down");
+        }
+        if( updateRateNanos <= 0 ) {
+            throw new IllegalArgumentException("Update rate must be greater than 0");
+        }
+        HostedLoop loop = new HostedLoop(systems, updateRateNanos);
+        loops.add(loop);
+        queue.add(loop);
+        return loop;
+    }
+
+    /**
+     *  Returns the loops currently hosted.
+     */
+    public Collection<HostedLoop> getHostedLoops() {
+        return Collections.unmodifiableSet(loops);
+    }
+
+    public int getHostedCount() {
+        return loops.size();
+    }
+
+    /**
+     *  Stops all of the hosted loops, waits for their systems to be stopped
+     *  and terminated, and then stops the worker threads.
+     */
+    public void shutdown() {
+        synchronized( this ) {
+            if( shutdown ) {
+                return;
+            }
+            shutdown = true;
+        }
+        if( started ) {
+            for( HostedLoop loop : new ArrayList<>(loops) ) {
+                loop.stop(true);
+            }
+        } else {
+            // Never ran so there is nothing to stop
+            queue.clear();
+            loops.clear();
+        }
+        for( Thread worker : workers ) {
+            if( worker == null ) {
+                continue;
+            }
+            worker.interrupt();
+            try {
+                worker.join();
+            } catch( InterruptedException e ) {
+                throw new RuntimeException("Interrupted while waiting for host threads to complete.", e);
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+        @Override
+        public void run() {
+            while( true ) {
+                HostedLoop loop;
+                try {
+                    loop = queue.take();
+                } catch( InterruptedException e ) {
+                    if( shutdown ) {
+                        return;
+                    }
+                    continue;
+                }
+                loop.runFrame();
+            }
+        }
+    }
+
+    private static class DefaultThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread( Runnable r ) {
+            Thread result = new Thread(r, "GameLoopHost-" + count.incrementAndGet());
+            return result;
+        }
+    }
+
+    /**
+     *  One GameSystemManager's loop within a GameLoopHost.
+     */
+    public class HostedLoop implements Delayed {
+        private final GameSystemManager systems;
+        private final long updateRate;
+        private final LoopHistory history = new LoopHistory(256);
+        private final AtomicLong lastStepTime = new AtomicLong();
+        private final SimTime safeTime = new SimTime();
+
+        // Only modified while the loop is not in the queue
+        private long nextDue;
+
+        private boolean initialized;
+        private boolean stopRequested;
+        private boolean terminated;
+        private Throwable startupFailure;
+        private Throwable updateFailure;
+
+        protected HostedLoop( GameSystemManager systems, long updateRate ) {
+            this.systems = systems;
+            this.updateRate = updateRate;
+            this.nextDue = System.nanoTime();
+        }
+
+        public GameSystemManager getGameSystemManager() {
+            return systems;
+        }
+
+        public long getUpdateRateNanos() {
+            return updateRate;
+        }
+
+        /**
+         *  Returns the per-frame timing history for this loop.  See
+         *  GameLoop.getLoopHistory().
+         */
+        public LoopHistory getLoopHistory() {
+            return history;
+        }
+
+        /**
+         *  Returns the SimTime representing the time at the beginning of the
+         *  last update.  See GameLoop.getStepTime().
+         */
+        public SimTime getStepTime() {
+            if( safeTime.getTime() != lastStepTime.get() ) {
+                safeTime.setCurrentTime(lastStepTime.get());
+            }
+            return safeTime;
+        }
+
+        /**
+         *  Returns true if this loop has not yet been stopped.
+         */
+        public synchronized boolean isRunning() {
+            return !terminated;
+        }
+
+        /**
+         *  Returns the exception that stopped this loop if its systems
+         *  failed to start or to update, else null.
+         */
+        public synchronized Throwable getFailure() {
+            return startupFailure != null ? startupFailure : updateFailure;
+        }
+
+        /**
+         *  Waits until the systems have been initialized and started, throwing
+         *  an exception if startup failed.
+         */
+        public synchronized void waitForInitialized() {
+            while( !initialized && startupFailure == null ) {
+                try {
+                    wait();
+                } catch( InterruptedException e ) {
+                    throw new RuntimeException("Interrupted waiting for initialize", e);
+                }
+            }
+            if( startupFailure != null ) {
+                throw new RuntimeException("Failed to initialize hosted loop", startupFailure);
+            }
+        }
+
+        /**
+         *  Stops this loop and waits for its systems to be stopped and
+         *  terminated.  This must not be called from one of the host's
+         *  own worker threads.
+         */
+        public void stop() {
+            stop(true);
+        }
+
+        /**
+         *  Stops this loop, stopping and terminating its systems on one of
+         *  the host's worker threads.  If wait is true then this method
+         *  doesn't return until that has happened and the host must already
+         *  be started.  If the host hasn't been started and wait is false then
+         *  the loop will be stopped as soon as it is.
+         */
+        public void stop( boolean wait ) {
+            synchronized( this ) {
+                if( terminated ) {
+                    return;
+                }
+                if( wait && !started ) {
+                    // Check before changing anything so that the loop
+                    // still runs normally if the host is started later.
+                    throw new IllegalStateException("Host is not started");
+                }
+                stopRequested = true;
+                // If we are waiting in the queue then move us to the front
+                // so that a worker can shut us down right away.  If we aren't
+                // in the queue then a worker is running us and will see the
+                // stop request when it is done.
+                if( queue.remove(this) ) {
+                    nextDue = System.nanoTime();
+                    queue.add(this);
+                }
+                if( !wait ) {
+                    return;
+                }
+                while( !terminated ) {
+                    try {
+                        wait();
+                    } catch( InterruptedException e ) {
+                        throw new RuntimeException("Interrupted while waiting for hosted loop to stop.", e);
+                    }
+                }
+            }
+        }
+
+        protected void runFrame() {
+            synchronized( this ) {
+                if( stopRequested ) {
+                    shutdownSystems();
+                    return;
+                }
+            }
+            if( !initialized ) {
+                if( !startSystems() ) {
+                    return;
+                }
+                reschedule(System.nanoTime() + updateRate);
+                return;
+            }
+
+            long time = System.nanoTime();
+            long scheduled = nextDue;
+            try {
+                systems.update();
+            } catch( RuntimeException e ) {
+                // The worker threads are shared so we can't just let the
+                // exception end the thread like GameLoop does.  Stop this
+                // loop instead so that anyone waiting on it is released.
+                log.error("Error updating hosted loop:" + this, e);
+                synchronized( this ) {
+                    updateFailure = e;
+                    shutdownSystems();
+                }
+                return;
+            }
+            long updateDelta = System.nanoTime() - time;
+            lastStepTime.set(systems.getStepTime().getTime());
+            history.record(systems.getStepTime().getFrame(), scheduled, time,
+                           updateDelta, 0, (time - scheduled) / updateRate);
+
+            // Like GameLoop, the next frame is due one interval after this
+            // one started.  If we are already behind then it will just run
+            // as soon as a worker is free and the missed frames are dropped.
+            reschedule(time + updateRate);
+        }
+
+        private void reschedule( long due ) {
+            synchronized( this ) {
+                if( stopRequested ) {
+                    due = System.nanoTime();
+                }
+                nextDue = due;
+                queue.add(this);
+            }
+        }
+
+        private boolean startSystems() {
+            try {
+                if( !systems.isInitialized() ) {
+                    systems.initialize();
+                }
+                if( !systems.isStarted() ) {
+                    systems.start();
+                }
+            } catch( RuntimeException e ) {
+                log.error("Error starting hosted loop", e);
+                synchronized( this ) {
+                    startupFailure = e;
+                    terminated = true;
+                    loops.remove(this);
+                    notifyAll();
+                }
+                return false;
+            }
+            synchronized( this ) {
+                initialized = true;
+                notifyAll();
+            }
+            return true;
+        }
+
+        private void shutdownSystems() {
+            try {
+                if( initialized ) {
+                    systems.stop();
+                    systems.terminate();
+                }
+            } catch( RuntimeException e ) {
+                log.error("Error stopping hosted loop", e);
+            } finally {
+                terminated = true;
+                loops.remove(this);
+                notifyAll();
+            }
+        }
+
+        @Override
+        public long getDelay( TimeUnit unit ) {
+            return unit.convert(nextDue - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo( Delayed other ) {
+            if( other == this ) {
+                return 0;
+            }
+            if( other instanceof HostedLoop ) {
+                return Long.compare(nextDue - ((HostedLoop)other).nextDue, 0);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "[systems=" + systems + ", updateRate=" + updateRate + "]";
+        }
+    }
+}
@@ -76,6 +76,11 @@ public class GameSystemManager {
     private final SimTime stepTime = new SimTime();
     private final SimEvent simEvent = new SimEvent(this); // can reuse it
     private SystemTiming timing;
+    private SystemUpdateStrategy updateStrategy;
+    private FrameRecorder recorder;
+    private EventBus eventBus = EventBus.getInstance();
+    private boolean frameMdcEnabled = false;
+    private final char[] frameBuffer = new char[20];
 
     // Keep track of the systems that were actually initialized
     // and actually started so that we can clean them up on stop() and
@@ -86,6 +91,27 @@ public class GameSystemManager {
     public GameSystemManager() {
         register(TaskDispatcher.class, new TaskDispatcher());
         register(Blackboard.class, new Blackboard());
+        register(EventBus.class, eventBus);
+    }
+
+    /**
+     *  Sets the event bus that this manager publishes its SimEvent lifecycle
+     *  and ErrorEvent events to.  It is also registered as the EventBus.class
+     *  system so that systems can look it up instead of using the singleton.
+     *  Applications running multiple simulations in the same JVM can give each
+     *  manager its own bus, optionally forwarding to a shared parent, so that
+     *  their events don't contend with each other.  Defaults to EventBus.getInstance().
+     */
+    public void setEventBus( EventBus eventBus ) {
+        if( eventBus == null ) {
+            throw new IllegalArgumentException("Event bus cannot be null");
+        }
+        this.eventBus = eventBus;
+        register(EventBus.class, eventBus);
+    }
+
+    public EventBus getEventBus() {
+        return eventBus;
     }
 
     /**
@@ -100,6 +126,51 @@ public class GameSystemManager {
         return timing;
     }
 
+    /**
+     *  Sets the strategy used to call update() on the systems each frame.
+     *  If null, which is the default, then systems are updated one at a time
+     *  in order on the thread calling update().  The ParallelUpdateStrategy
+     *  can be used to update systems that declare non-conflicting
+     *  SystemDependencies at the same time.
+     */
+    public void setSystemUpdateStrategy( SystemUpdateStrategy updateStrategy ) {
+        this.updateStrategy = updateStrategy;
+    }
+
+    public SystemUpdateStrategy getSystemUpdateStrategy() {
+        return updateStrategy;
+    }
+
+    /**
+     *  If set then every frame's time delta and the types of the tasks run
+     *  by the TaskDispatcher are written to the specified recorder so that
+     *  the session can be replayed later with a FrameReplayer.  The recorder
+     *  must be set from the update thread or before the systems are started.
+     */
+    public void setFrameRecorder( FrameRecorder recorder ) {
+        this.recorder = recorder;
+    }
+
+    public FrameRecorder getFrameRecorder() {
+        return recorder;
+    }
+
+    /**
+     *  Set to true if update() should set the current frame number as
+     *  the "frame" logging MDC for the duration of the update.  Defaults to false.
+     *  Building the frame String and populating the MDC (which for most logging
+     *  implementations copies the context map) creates garbage every frame, so
+     *  update() is only allocation-free when this is off.  Applications that
+     *  include the frame in their log format need to turn it on.
+     */
+    public void setFrameMdcEnabled( boolean frameMdcEnabled ) {
+        this.frameMdcEnabled = frameMdcEnabled;
+    }
+
+    public boolean isFrameMdcEnabled() {
+        return frameMdcEnabled;
+    }
+
     /**
      *  Returns a read-only list of all attached GameSystems in the order
      *  that they are executed.  This is useful for debugging.
@@ -135,7 +206,7 @@ public class GameSystemManager {
             throw new RuntimeException("Already initialized.");
         }
         state = State.Initializing;
-        EventBus.publish(SimEvent.simInitializing, simEvent);
+        eventBus.publishEvent(SimEvent.simInitializing, simEvent);
         try {
             for( GameSystem sys : getArray() ) {
                 if( log.isTraceEnabled() ) {
@@ -145,9 +216,9 @@ public class GameSystemManager {
                 initialized.add(sys);
             }
             state = State.Initialized;
-            EventBus.publish(SimEvent.simInitialized, simEvent);
+            eventBus.publishEvent(SimEvent.simInitialized, simEvent);
         } catch( RuntimeException e ) {
-            EventBus.publish(SimEvent.simFailed, simEvent);
+            eventBus.publishEvent(SimEvent.simFailed, simEvent);
 
             // Cleanup what we can
             if( !initialized.isEmpty() ) {
@@ -188,10 +259,10 @@ public class GameSystemManager {
             throw new RuntimeException("Not initialized.  State:" + state);
         }
         state = State.Terminating;
-        EventBus.publish(SimEvent.simTerminating, simEvent);
+        eventBus.publishEvent(SimEvent.simTerminating, simEvent);
         terminateSystems();
         state = State.Terminated;
-        EventBus.publish(SimEvent.simTerminated, simEvent);
+        eventBus.publishEvent(SimEvent.simTerminated, simEvent);
     }
 
     public void start() {
@@ -207,7 +278,7 @@ public class GameSystemManager {
         updateTime();
 
         state = State.Starting;
-        EventBus.publish(SimEvent.simStarting, simEvent);
+        eventBus.publishEvent(SimEvent.simStarting, simEvent);
         try {
             for( GameSystem sys : getArray() ) {
                 if( log.isTraceEnabled() ) {
@@ -217,11 +288,11 @@ public class GameSystemManager {
                 started.add(sys);
             }
             state = State.Started;
-            EventBus.publish(SimEvent.simStarted, simEvent);
+            eventBus.publishEvent(SimEvent.simStarted, simEvent);
         } catch( RuntimeException e ) {
             log.error("Error starting systems", e);
-            EventBus.publish(SimEvent.simFailed, simEvent);
-            EventBus.publish(ErrorEvent.fatalError, new ErrorEvent(e));
+            eventBus.publishEvent(SimEvent.simFailed, simEvent);
+            eventBus.publishEvent(ErrorEvent.fatalError, new ErrorEvent(e));
 
             // Cleanup what we can
             if( !started.isEmpty() ) {
@@ -245,10 +316,10 @@ public class GameSystemManager {
             return;
         }
         state = State.Stopping;
-        EventBus.publish(SimEvent.simStopping, simEvent);
+        eventBus.publishEvent(SimEvent.simStopping, simEvent);
         stopSystems();
         state = State.Stopped;
-        EventBus.publish(SimEvent.simStopped, simEvent);
+        eventBus.publishEvent(SimEvent.simStopped, simEvent);
     }
 
     protected void terminateSystems() {
@@ -388,33 +459,100 @@ public class GameSystemManager {
     public void update() {
         try {
             // Update the step time...
+            long lastTime = stepTime.getTime();
             updateTime();
+            if( recorder != null ) {
+                recorder.frameStarted(stepTime.getTime() - lastTime);
+            }
+            updateSystems();
+        } catch( Throwable t ) {
+            updateFailed(t);
+        }
+    }
 
-            String frame = String.format("%06d", stepTime.getFrame());
-            try( MDC.MDCCloseable temp = MDC.putCloseable("frame", frame) ) {
-                if( timing != null ) {
-                    timing.startFrame();
-                    for( GameSystem sys : getArray() ) {
-                        try( AutoCloseable info = timing.trackUpdate(sys) ) {
-                            sys.update(stepTime);
-                        }
-                    }
-                    timing.endFrame();
-                } else {
-                    // Update the systems.
-                    for( GameSystem sys : getArray() ) {
+    /**
+     *  Advances the current SimTime by exactly the specified number of
+     *  nanoseconds and calls update on all of the systems.  This is used
+     *  for fixed time step updates where every frame should see the same
+     *  tpf regardless of how much real time has passed since the last frame.
+     */
+    public void step( long deltaNanos ) {
+        try {
+            stepTime.step(deltaNanos);
+            if( recorder != null ) {
+                recorder.frameStarted(deltaNanos);
+            }
+            updateSystems();
+        } catch( Throwable t ) {
+            updateFailed(t);
+        }
+    }
+
+    protected void updateSystems() {
+        boolean mdc = frameMdcEnabled;
+        if( mdc ) {
+            MDC.put("frame", formatFrame(stepTime.getFrame()));
+        }
+        try {
+            if( timing != null ) {
+                timing.startFrame();
+            }
+            if( updateStrategy != null ) {
+                updateStrategy.update(getArray(), stepTime, timing);
+            } else if( timing != null ) {
+                for( GameSystem sys : getArray() ) {
+                    try( SystemTiming.TimingInfo info = timing.trackUpdate(sys) ) {
                         sys.update(stepTime);
                     }
                 }
+            } else {
+                // Update the systems.
+                for( GameSystem sys : getArray() ) {
+                    sys.update(stepTime);
+                }
+            }
+            if( timing != null ) {
+                timing.endFrame();
+            }
+
+            // Deliver any batched blackboard changes from this frame
+            Blackboard blackboard = get(Blackboard.class);
+            if( blackboard != null && blackboard.getNotificationExecutor() == null ) {
+                blackboard.deliverPendingNotifications();
+            }
+        } finally {
+            if( mdc ) {
+                MDC.remove("frame");
             }
-        } catch( Throwable t ) {
-            log.error("Error updating systems", t);
-            // Treat this as a fatal error... systems should
-            // handle their own errors otherwise
-            EventBus.publish(ErrorEvent.fatalError, new ErrorEvent(t));
         }
     }
 
+    /**
+     *  Returns the frame number zero-padded to at least 6 digits for use
+     *  in the logging MDC.  This is equivalent to String.format("%06d", frame)
+     *  but without the formatter overhead.
+     */
+    protected String formatFrame( long frame ) {
+        char[] buffer = frameBuffer;
+        int pos = buffer.length;
+        long value = frame;
+        do {
+            buffer[--pos] = (char)('0' + (value % 10));
+            value /= 10;
+        } while( value != 0 );
+        while( buffer.length - pos < 6 ) {
+            buffer[--pos] = '0';
+        }
+        return new String(buffer, pos, buffer.length - pos);
+    }
+
+    private void updateFailed( Throwable t ) {
+        log.error("Error updating systems", t);
+        // Treat this as a fatal error... systems should
+        // handle their own errors otherwise
+        eventBus.publishEvent(ErrorEvent.fatalError, new ErrorEvent(t));
+    }
+
     protected void updateTime() {
         long time = System.nanoTime();
         stepTime.update(time);
@@ -0,0 +1,279 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *  Keeps a fixed-size history of game loop frame timings: when each
+ *  frame was supposed to start, when it actually started, how long the
+ *  update took, how long the loop slept beforehand, and how many frames were
+ *  missed.  The history is written by a single loop thread without locks or
+ *  allocation and can be read from any other thread at any time without
+ *  blocking the writer.
+ *
+ *  <p>Readers use a sequence check to discard any samples that were
+ *  overwritten while they were being copied, so samples returned from
+ *  getSamples() are always consistent.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class LoopHistory {
+
+    private static final int FIELDS = 6;
+    private static final int FRAME = 0;
+    private static final int SCHEDULED = 1;
+    private static final int STARTED = 2;
+    private static final int UPDATE = 3;
+    private static final int SLEEP = 4;
+    private static final int MISSED = 5;
+
+    private final int capacity;
+    private final AtomicLongArray data;
+
+    // The sequence number one past the sample currently being written
+    private final AtomicLong claimed = new AtomicLong();
+
+    // The sequence number one past the last completely written sample
+    private final AtomicLong published = new AtomicLong();
+
+    private volatile long missedFrameCount;
+    private volatile Listener[] listeners = new Listener[0];
+
+    public LoopHistory( int capacity ) {
+        if( capacity < 1 ) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.data = new AtomicLongArray(capacity * FIELDS);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     *  Records a frame sample.  This must only be called from one thread
+     *  at a time, generally the game loop thread.
+     *
+     *  @param frame the SimTime frame number of the update.
+     *  @param scheduledTime the System.nanoTime() that the frame ideally would have started.
+     *  @param startTime the System.nanoTime() that the frame actually started.
+     *  @param updateNanos how long the frame's update took.
+     *  @param sleepNanos how long the loop spent in its sleep strategy since the previous frame.
+     *  @param missedFrames the number of frames that were skipped or dropped because
+     *          the loop fell behind.
+     */
+    public void record( long frame, long scheduledTime, long startTime, long updateNanos,
+                        long sleepNanos, long missedFrames ) {
+        long seq = published.get();
+        claimed.set(seq + 1);
+        int base = (int)(seq % capacity) * FIELDS;
+        data.lazySet(base + FRAME, frame);
+        data.lazySet(base + SCHEDULED, scheduledTime);
+        data.lazySet(base + STARTED, startTime);
+        data.lazySet(base + UPDATE, updateNanos);
+        data.lazySet(base + SLEEP, sleepNanos);
+        data.lazySet(base + MISSED, missedFrames);
+        if( missedFrames > 0 ) {
+            missedFrameCount += missedFrames;
+        }
+        published.set(seq + 1);
+
+        for( Listener l : listeners ) {
+            l.frameRecorded(this, seq);
+        }
+    }
+
+    /**
+     *  Returns the total number of samples that have ever been recorded.
+     *  This is also the sequence number of the next sample.
+     */
+    public long getRecordCount() {
+        return published.get();
+    }
+
+    /**
+     *  Returns the total number of missed frames that have been recorded.
+     */
+    public long getMissedFrameCount() {
+        return missedFrameCount;
+    }
+
+    /**
+     *  Returns the sample with the specified sequence number or null if
+     *  it has not been written yet or has already been overwritten.
+     */
+    public Sample getSample( long sequence ) {
+        if( sequence < 0 || sequence >= published.get() ) {
+            return null;
+        }
+        Sample result = readSample(sequence);
+        if( sequence < claimed.get() - capacity ) {
+            // Overwritten while we were reading it
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     *  Returns the most recently recorded sample or null if there are none.
+     */
+    public Sample getLatest() {
+        return getSample(published.get() - 1);
+    }
+
+    /**
+     *  Returns up to max of the most recent samples, oldest first.
+     */
+    public List<Sample> getSamples( int max ) {
+        long end = published.get();
+        long start = Math.max(0, end - Math.min(max, capacity));
+        List<Sample> result = new ArrayList<>((int)(end - start));
+        for( long seq = start; seq < end; seq++ ) {
+            result.add(readSample(seq));
+        }
+
+        // Drop any that the writer has started overwriting since we
+        // began reading
+        long valid = claimed.get() - capacity;
+        while( !result.isEmpty() && result.get(0).getSequence() < valid ) {
+            result.remove(0);
+        }
+        return result;
+    }
+
+    private Sample readSample( long seq ) {
+        int base = (int)(seq % capacity) * FIELDS;
+        return new Sample(seq, data.get(base + FRAME), data.get(base + SCHEDULED),
+                          data.get(base + STARTED), data.get(base + UPDATE),
+                          data.get(base + SLEEP), data.get(base + MISSED));
+    }
+
+    /**
+     *  Adds a listener that will be notified on the loop thread every time
+     *  a sample is recorded.  Listeners should do very little work, generally
+     *  just signaling a monitoring thread that then reads the samples itself.
+     */
+    public synchronized void addListener( Listener l ) {
+        Listener[] array = Arrays.copyOf(listeners, listeners.length + 1);
+        array[array.length - 1] = l;
+        listeners = array;
+    }
+
+    public synchronized void removeListener( Listener l ) {
+        List<Listener> list = new ArrayList<>(Arrays.asList(listeners));
+        list.remove(l);
+        listeners = list.toArray(new Listener[list.size()]);
+    }
+
+    /**
+     *  Notified on the loop thread whenever a frame sample is recorded.
+     */
+    public interface Listener {
+        public void frameRecorded( LoopHistory history, long sequence );
+    }
+
+    /**
+     *  An immutable copy of one frame's timing information.
+     */
+    public static class Sample {
+        private final long sequence;
+        private final long frame;
+        private final long scheduledTime;
+        private final long startTime;
+        private final long updateNanos;
+        private final long sleepNanos;
+        private final long missedFrames;
+
+        public Sample( long sequence, long frame, long scheduledTime, long startTime,
+                       long updateNanos, long sleepNanos, long missedFrames ) {
+            this.sequence = sequence;
+            this.frame = frame;
+            this.scheduledTime = scheduledTime;
+            this.startTime = startTime;
+            this.updateNanos = updateNanos;
+            this.sleepNanos = sleepNanos;
+            this.missedFrames = missedFrames;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getFrame() {
+            return frame;
+        }
+
+        public long getScheduledTime() {
+            return scheduledTime;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        /**
+         *  Returns how late in nanoseconds the frame started relative to
+         *  its scheduled time.
+         */
+        public long getLateness() {
+            return startTime - scheduledTime;
+        }
+
+        public long getUpdateNanos() {
+            return updateNanos;
+        }
+
+        public long getSleepNanos() {
+            return sleepNanos;
+        }
+
+        public long getMissedFrames() {
+            return missedFrames;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Sample[frame=%d, late=%.03f ms, update=%.03f ms, sleep=%.03f ms, missed=%d]",
+                                 frame, getLateness() / 1000000.0, updateNanos / 1000000.0,
+                                 sleepNanos / 1000000.0, missedFrames);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.slf4j.*;
+
+/**
+ *  A SystemUpdateStrategy that updates non-conflicting systems at the same
+ *  time using a ForkJoinPool.  Systems declare the resources they read and
+ *  write by implementing SystemDependencies.  The systems are then split into
+ *  ordered stages such that a system always runs after any earlier system
+ *  (in manager order) that it conflicts with.  All of the systems in a stage
+ *  are updated in parallel and each stage completes before the next one
+ *  begins.
+ *
+ *  <p>Systems that do not implement SystemDependencies are treated as
+ *  exclusive.  They get a stage all to themselves and no later system
+ *  will run before them.  This includes standard systems like the TaskDispatcher,
+ *  so by default any enqueued tasks still run by themselves before the systems
+ *  that follow.  Stages with only one system are run directly on the calling
+ *  thread.</p>
+ *
+ *  <p>Note: systems running on pool threads will not see the "frame" logging
+ *  MDC that GameSystemManager sets for the update thread.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class ParallelUpdateStrategy implements SystemUpdateStrategy {
+
+    static Logger log = LoggerFactory.getLogger(ParallelUpdateStrategy.class);
+
+    private final ForkJoinPool pool;
+
+    // The system array that the current plan was built for
+    private GameSystem[] planned;
+    private Stage[] stages;
+
+    // Per-frame state shared with the pool threads.  ForkJoinPool.invoke()
+    // provides the memory barriers needed for the workers to see these.
+    private SimTime time;
+    private SystemTiming timing;
+
+    /**
+     *  Creates a parallel update strategy that runs its systems on the
+     *  common ForkJoinPool.
+     */
+    public ParallelUpdateStrategy() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     *  Creates a parallel update strategy with its own ForkJoinPool of
+     *  the specified parallelism.
+     */
+    public ParallelUpdateStrategy( int parallelism ) {
+        this(new ForkJoinPool(parallelism));
+    }
+
+    /**
+     *  Creates a parallel update strategy that runs its systems on the
+     *  specified pool.  The caller is responsible for shutting down the pool
+     *  if necessary.
+     */
+    public ParallelUpdateStrategy( ForkJoinPool pool ) {
+        if( pool == null ) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        this.pool = pool;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     *  Returns the stages from the most recently built plan where each
+     *  stage contains the systems that will be updated in parallel.  This
+     *  is useful for debugging dependency declarations.
+     */
+    public List<List<GameSystem>> getStages() {
+        Stage[] current = stages;
+        if( current == null ) {
+            return Collections.emptyList();
+        }
+        List<List<GameSystem>> result = new ArrayList<>(current.length);
+        for( Stage stage : current ) {
+            List<GameSystem> list = new ArrayList<>(stage.updates.length);
+            for( SystemUpdate update : stage.updates ) {
+                list.add(update.system);
+            }
+            result.add(Collections.unmodifiableList(list));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public void update( GameSystem[] systems, SimTime time, SystemTiming timing ) {
+        if( systems != planned ) {
+            stages = buildPlan(systems);
+            planned = systems;
+        }
+        this.time = time;
+        this.timing = timing;
+        try {
+            for( Stage stage : stages ) {
+                stage.execute();
+            }
+        } finally {
+            this.time = null;
+            this.timing = null;
+        }
+    }
+
+    protected Stage[] buildPlan( GameSystem[] systems ) {
+        List<List<GameSystem>> groups = new ArrayList<>();
+        Access[] access = new Access[systems.length];
+        int[] stageIndex = new int[systems.length];
+
+        // The earliest stage that a system may be placed in.  Exclusive
+        // systems move this forward so that nothing later can run before them.
+        int barrier = 0;
+
+        for( int i = 0; i < systems.length; i++ ) {
+            GameSystem sys = systems[i];
+            if( !(sys instanceof SystemDependencies) ) {
+                stageIndex[i] = groups.size();
+                groups.add(new ArrayList<>(Collections.singletonList(sys)));
+                barrier = groups.size();
+                continue;
+            }
+            access[i] = new Access((SystemDependencies)sys);
+
+            // Find the first stage after any earlier conflicting system
+            int stage = barrier;
+            for( int j = 0; j < i; j++ ) {
+                if( access[j] == null || stageIndex[j] < stage ) {
+                    continue;
+                }
+                if( access[i].conflicts(access[j]) ) {
+                    stage = stageIndex[j] + 1;
+                }
+            }
+            if( stage == groups.size() ) {
+                groups.add(new ArrayList<>());
+            }
+            groups.get(stage).add(sys);
+            stageIndex[i] = stage;
+        }
+
+        Stage[] result = new Stage[groups.size()];
+        for( int i = 0; i < result.length; i++ ) {
+            result[i] = new Stage(groups.get(i));
+        }
+        if( log.isDebugEnabled() ) {
+            log.debug("Built update plan with " + result.length + " stages for " + systems.length + " systems:" + groups);
+        }
+        return result;
+    }
+
+    private static class Access {
+        private final Set<Object> reads;
+        private final Set<Object> writes;
+
+        public Access( SystemDependencies deps ) {
+            this.reads = toSet(deps.getReads());
+            this.writes = toSet(deps.getWrites());
+        }
+
+        private static Set<Object> toSet( Collection<?> c ) {
+            if( c == null || c.isEmpty() ) {
+                return Collections.emptySet();
+            }
+            return new HashSet<Object>(c);
+        }
+
+        private static boolean intersects( Set<Object> a, Set<Object> b ) {
+            if( a.size() > b.size() ) {
+                return intersects(b, a);
+            }
+            for( Object o : a ) {
+                if( b.contains(o) ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public boolean conflicts( Access other ) {
+            return intersects(writes, other.writes)
+                || intersects(writes, other.reads)
+                || intersects(reads, other.writes);
+        }
+    }
+
+    private class Stage extends RecursiveAction {
+        private final SystemUpdate[] updates;
+
+        public Stage( List<GameSystem> systems ) {
+            this.updates = new SystemUpdate[systems.size()];
+            for( int i = 0; i < updates.length; i++ ) {
+                updates[i] = new SystemUpdate(systems.get(i));
+            }
+        }
+
+        public void execute() {
+            if( updates.length == 1 ) {
+                // No reason to involve the pool
+                updates[0].updateSystem();
+                return;
+            }
+            // The actions are reused every frame
+            reinitialize();
+            pool.invoke(this);
+        }
+
+        @Override
+        protected void compute() {
+            for( SystemUpdate update : updates ) {
+                update.reinitialize();
+            }
+            invokeAll(updates);
+        }
+    }
+
+    private class SystemUpdate extends RecursiveAction {
+        private final GameSystem system;
+
+        public SystemUpdate( GameSystem system ) {
+            this.system = system;
+        }
+
+        @Override
+        protected void compute() {
+            updateSystem();
+        }
+
+        protected void updateSystem() {
+            if( timing != null ) {
+                try( SystemTiming.TimingInfo info = timing.trackUpdate(system) ) {
+                    system.update(time);
+                }
+            } else {
+                system.update(time);
+            }
+        }
+    }
+}
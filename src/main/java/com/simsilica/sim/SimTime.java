@@ -76,6 +76,31 @@ public class SimTime {
         this.gameTime += timeDelta;
     }
  
+    /**
+     *  Advances the time by exactly the specified number of nanoseconds
+     *  instead of calculating the delta from a 'real time' timestamp.  This is
+     *  used for fixed time step updates where every frame should see the same
+     *  tpf regardless of how much real time has actually passed.  The internal
+     *  real time reference is advanced by the same amount so mixing step() with
+     *  update() will treat any drift as time passed.  If there is no real time
+     *  reference yet, because update() hasn't been called since the first frame
+     *  or since setCurrentTime(), then the next update() starts a new one the
+     *  same way the first update() does.
+     */
+    public void step( long deltaNanos ) {
+        if( frame == 0 || rebase ) {
+            // Nothing to advance so make sure the next update()
+            // doesn't calculate its delta from it.
+            rebase = true;
+        } else {
+            lastRealTime += deltaNanos;
+        }
+
+        frame++;
+        tpf = deltaNanos * timeScale;
+        this.gameTime += deltaNanos;
+    }
+
     /**
      *  Returns the SimTime version of the specified timestamp that
      *  is compatible with what would normally be provided to update().
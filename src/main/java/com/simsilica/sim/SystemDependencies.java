@@ -0,0 +1,75 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.Collection;
+
+/**
+ *  Implemented by GameSystems that can declare which shared resources
+ *  they read and write during update().  Update strategies like the
+ *  ParallelUpdateStrategy use this information to determine which systems
+ *  can safely be updated at the same time.
+ *
+ *  <p>Resources are arbitrary objects compared with equals()/hashCode().
+ *  By convention, component types and registered services are represented
+ *  by their Class and Blackboard values by their String ID, but any
+ *  shared object can be used as long as all of the systems that touch it
+ *  agree on the same resource object.</p>
+ *
+ *  <p>Two systems conflict if either one writes a resource that the other
+ *  reads or writes.  Systems that do not implement this interface are
+ *  assumed to conflict with everything and are always updated by themselves.</p>
+ *
+ *  <p>The returned collections are queried when the update plan is built,
+ *  generally only when systems are added or removed, so they should not
+ *  change while the system is attached.</p>
+ *
+ *  @author    Paul Speed
+ */
+public interface SystemDependencies {
+
+    /**
+     *  Returns the resources that this system only reads during update().
+     *  Resources that are also written need only be returned from getWrites().
+     */
+    public Collection<?> getReads();
+
+    /**
+     *  Returns the resources that this system modifies during update().
+     */
+    public Collection<?> getWrites();
+}
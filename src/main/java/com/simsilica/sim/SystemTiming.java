@@ -36,12 +36,24 @@
 
 package com.simsilica.sim;
 
+import java.io.PrintWriter;
 import java.util.*;
 
 import org.slf4j.*;
 
+import com.simsilica.util.RollingTimeWindow;
+import com.simsilica.util.TimeStats;
+
 /**
- *  Collects timing information about the running systems.
+ *  Collects timing information about the running systems.  In addition
+ *  to the last update time of each system, rolling min/max/mean/percentile
+ *  statistics are kept over a window of recent frames.  These can be
+ *  queried with getStats() or getStatsSnapshot() to find out which systems
+ *  contribute to frame time spikes.
+ *
+ *  <p>Update strategies may track several systems at once from different
+ *  threads so all access to the per-system index is synchronized on this
+ *  object.</p>
  *
  *  @author    Paul Speed
  */
@@ -52,8 +64,28 @@ public class SystemTiming {
     private long frameStart;
     private long frameEnd;
     private long timingCheckThresholdNanos = 100 * 1000000L;
+    private final int windowSize;
+    private final RollingTimeWindow frameWindow;
 
+    /**
+     *  Creates a system timing object that keeps statistics over the
+     *  last 600 frames, ie: 10 seconds at 60 FPS.
+     */
     public SystemTiming() {
+        this(600);
+    }
+
+    /**
+     *  Creates a system timing object that keeps statistics over the
+     *  specified number of frames.
+     */
+    public SystemTiming( int windowSize ) {
+        this.windowSize = windowSize;
+        this.frameWindow = new RollingTimeWindow(windowSize);
+    }
+
+    public int getWindowSize() {
+        return windowSize;
     }
 
     /**
@@ -74,18 +106,60 @@ public class SystemTiming {
 
     public void endFrame() {
         this.frameEnd = System.nanoTime();
+        frameWindow.add(frameEnd - frameStart);
         checkTiming(frameStart, frameEnd);
     }
 
+    /**
+     *  Returns the rolling statistics for the whole frame.
+     */
+    public TimeStats getFrameStats() {
+        return frameWindow.getStats();
+    }
+
+    /**
+     *  Returns the rolling statistics for the specified system or null if
+     *  the system hasn't been tracked yet.
+     */
+    public TimeStats getStats( GameSystem sys ) {
+        TimingInfo info = getTiming(sys, false);
+        return info == null ? null : info.getStats();
+    }
+
+    /**
+     *  Returns a snapshot of the rolling statistics for all tracked systems
+     *  in the order they were first tracked.
+     */
+    public synchronized Map<GameSystem, TimeStats> getStatsSnapshot() {
+        Map<GameSystem, TimeStats> result = new LinkedHashMap<>();
+        for( Map.Entry<GameSystem, TimingInfo> e : timingIndex.entrySet() ) {
+            result.put(e.getKey(), e.getValue().getStats());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     *  Writes the current frame and per-system statistics to the specified
+     *  writer, one line each.
+     */
+    public void generateStatsReport( PrintWriter out, String indent ) {
+        out.println(indent + "frame: " + getFrameStats());
+        for( Map.Entry<GameSystem, TimeStats> e : getStatsSnapshot().entrySet() ) {
+            out.println(indent + e.getKey() + ": " + e.getValue());
+        }
+    }
+
     protected void checkTiming( long start, long end ) {
         long delta = end - start;
         if( delta > timingCheckThresholdNanos ) {
             StringBuilder sb = new StringBuilder();
-            for( Map.Entry<GameSystem, TimingInfo> e : timingIndex.entrySet() ) {
-                if( sb.length() > 0 ) {
-                    sb.append(", ");
+            synchronized( this ) {
+                for( Map.Entry<GameSystem, TimingInfo> e : timingIndex.entrySet() ) {
+                    if( sb.length() > 0 ) {
+                        sb.append(", ");
+                    }
+                    sb.append(e.getValue() + " : " + e.getKey());
                 }
-                sb.append(e.getValue() + " : " + e.getKey());
             }
             log.warn(String.format("Update loop exceeds %d ms, at: %.03f ms  System info: %s",
                                    getTimingCheckThreshold(), delta/1000000.0, sb));
@@ -96,14 +170,22 @@ public class SystemTiming {
         return getTiming(sys, true).open();
     }
 
-    public Map<GameSystem, TimingInfo> getAllTimingInfo() {
-        return timingIndex;
+    /**
+     *  Returns a snapshot of the timing information for all tracked systems
+     *  in the order they were first tracked.
+     */
+    public synchronized Map<GameSystem, TimingInfo> getAllTimingInfo() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(timingIndex));
     }
 
-    protected TimingInfo getTiming( GameSystem sys, boolean create ) {
+    /**
+     *  Returns the timing information for the specified system, optionally
+     *  creating it.
+     */
+    protected synchronized TimingInfo getTiming( GameSystem sys, boolean create ) {
         TimingInfo result = timingIndex.get(sys);
         if( result == null && create ) {
-            result = new TimingInfo(sys);
+            result = new TimingInfo(sys, windowSize);
             timingIndex.put(sys, result);
         }
         return result;
@@ -111,11 +193,17 @@ public class SystemTiming {
 
     public static class TimingInfo implements AutoCloseable {
         private final GameSystem sys;
+        private final RollingTimeWindow window;
         private long start;
         private long stop;
 
         public TimingInfo( GameSystem sys ) {
+            this(sys, 600);
+        }
+
+        public TimingInfo( GameSystem sys, int windowSize ) {
             this.sys = sys;
+            this.window = new RollingTimeWindow(windowSize);
         }
 
         protected TimingInfo open() {
@@ -125,6 +213,14 @@ public class SystemTiming {
 
         public void close() {
             this.stop = System.nanoTime();
+            window.add(stop - start);
+        }
+
+        /**
+         *  Returns the rolling statistics for this system's update times.
+         */
+        public TimeStats getStats() {
+            return window.getStats();
         }
 
         public long getDurationNanos() {
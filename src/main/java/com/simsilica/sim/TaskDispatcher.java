@@ -37,9 +37,13 @@
 package com.simsilica.sim;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.simsilica.thread.MpscRingBuffer;
 
 
 /**
@@ -49,28 +53,291 @@ import java.util.concurrent.FutureTask;
  *  with this service (or directly through the GameSystemManager)
  *  and will be run at the beginning of the next update().
  *
+ *  <p>Tasks are queued in a fixed-size lock-free ring buffer so that
+ *  enqueuing does not create queue nodes.  If the ring buffer fills up then
+ *  tasks spill over into an unbounded overflow queue so that they are never
+ *  rejected.  By default, all pending tasks are run every update.  A per-frame
+ *  task count or time budget can be set so that large bursts of tasks are spread
+ *  over several frames instead of stalling one.</p>
+ *
  *  @author    Paul Speed
  */
 public class TaskDispatcher extends AbstractGameSystem {
-    private final ConcurrentLinkedQueue<FutureTask> tasks = new ConcurrentLinkedQueue<>();
-    
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    // Returned for every task that enqueue() drops during a replay
+    private static final FutureTask<Object> CANCELLED = new FutureTask<>(new Runnable() {
+            public void run() {
+            }
+        }, null);
+    static {
+        CANCELLED.cancel(false);
+    }
+
+    private final MpscRingBuffer<Runnable> tasks;
+    private final ConcurrentLinkedQueue<Runnable> overflow = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<Object, KeyedTask> keyedTasks = new ConcurrentHashMap<>();
+
+    private volatile int maxTasksPerFrame = -1;
+    private volatile long maxNanosPerFrame = -1;
+    private volatile boolean replaying;
+
+    // Stats
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong suppressedCount = new AtomicLong();
+    private volatile long executedCount;
+    private volatile int lastExecutedCount;
+    private volatile long lastUpdateNanos;
+
     public TaskDispatcher() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     *  Creates a task dispatcher whose ring buffer will hold at least the
+     *  specified number of tasks before spilling into the overflow queue.
+     */
+    public TaskDispatcher( int capacity ) {
+        this.tasks = new MpscRingBuffer<>(capacity);
+    }
+
+    /**
+     *  Sets the maximum number of tasks that will be run in a single
+     *  update.  Remaining tasks will be run on subsequent frames.  Defaults
+     *  to -1, no limit.
+     */
+    public void setMaxTasksPerFrame( int maxTasksPerFrame ) {
+        this.maxTasksPerFrame = maxTasksPerFrame;
+    }
+
+    public int getMaxTasksPerFrame() {
+        return maxTasksPerFrame;
+    }
+
+    /**
+     *  Sets the amount of time in nanoseconds that update() may spend running
+     *  tasks before leaving the rest for subsequent frames.  At least one task
+     *  is always run if any are pending.  Defaults to -1, no limit.
+     */
+    public void setMaxNanosPerFrame( long maxNanosPerFrame ) {
+        this.maxNanosPerFrame = maxNanosPerFrame;
+    }
+
+    public long getMaxNanosPerFrame() {
+        return maxNanosPerFrame;
     }
 
+    /**
+     *  Enqueues a callable that will be run during a subsequent update() and
+     *  returns a Future for its result.  The returned Future is the only object
+     *  created per call as it is also what gets queued.  Use execute() instead
+     *  when the result is not needed.
+     */
+    @SuppressWarnings("unchecked")
     public <V> Future<V> enqueue( Callable<V> callable ) {
-        FutureTask<V> result = new FutureTask<>(callable);
-        tasks.add(result);
+        if( callable == null ) {
+            throw new IllegalArgumentException("Callable cannot be null");
+        }
+        if( replaying ) {
+            suppressedCount.incrementAndGet();
+            return (Future<V>)CANCELLED;
+        }
+        FutureTask<V> result = new CallableTask<>(callable);
+        offer(result);
+        return result;
+    }
+
+    /**
+     *  Enqueues a task that will be run during a subsequent update() without
+     *  the overhead of creating a Future.  Unlike enqueue(), any exception
+     *  thrown by the task will propagate out of update() like any other
+     *  system error.
+     */
+    public void execute( Runnable task ) {
+        if( task == null ) {
+            throw new IllegalArgumentException("Task cannot be null");
+        }
+        if( replaying ) {
+            suppressedCount.incrementAndGet();
+            return;
+        }
+        offer(task);
+    }
+
+    /**
+     *  Enqueues a task that will be coalesced with any other pending task
+     *  for the same key.  If a task for the key is already waiting to run then
+     *  it is replaced with the new task, ie: last one wins.  This is useful for
+     *  things like state updates where only the latest value matters.  Note:
+     *  if a task is enqueued just as the previous one for the same key is being
+     *  run then the newer task will still be run on its own, so it's possible
+     *  for the latest task to run twice but it will never be missed.
+     */
+    public void execute( Object key, Runnable task ) {
+        if( key == null ) {
+            throw new IllegalArgumentException("Key cannot be null, use execute(Runnable) for uncoalesced tasks");
+        }
+        if( task == null ) {
+            throw new IllegalArgumentException("Task cannot be null");
+        }
+        if( replaying ) {
+            suppressedCount.incrementAndGet();
+            return;
+        }
+        while( true ) {
+            KeyedTask existing = keyedTasks.get(key);
+            if( existing != null ) {
+                existing.task = task;
+                if( keyedTasks.get(key) == existing ) {
+                    // Still pending so it will see our task
+                    coalescedCount.incrementAndGet();
+                    return;
+                }
+                // Else it was run or is running, try again
+                continue;
+            }
+            KeyedTask keyed = new KeyedTask(key, task);
+            if( keyedTasks.putIfAbsent(key, keyed) == null ) {
+                offer(keyed);
+                return;
+            }
+        }
+    }
+
+    /**
+     *  Called by the FrameReplayer to turn replay mode on or off.  While
+     *  replaying, tasks enqueued by anything other than the replayer are
+     *  dropped because the recording already includes the tasks that were
+     *  enqueued when it was made.  Running both would run them twice.
+     *  Futures returned by enqueue() while replaying are already cancelled.
+     */
+    void setReplaying( boolean replaying ) {
+        this.replaying = replaying;
+    }
+
+    boolean isReplaying() {
+        return replaying;
+    }
+
+    /**
+     *  Queues a task recreated from a recording, even while replaying.
+     */
+    void replay( Runnable task ) {
+        offer(task);
+    }
+
+    private void offer( Runnable task ) {
+        // Once tasks have overflowed, new tasks must also go to the overflow
+        // queue until it drains so that tasks still run in order.
+        if( overflow.isEmpty() && tasks.offer(task) ) {
+            return;
+        }
+        overflowCount.incrementAndGet();
+        overflow.add(task);
+    }
+
+    private Runnable poll() {
+        Runnable result = tasks.poll();
+        if( result == null ) {
+            result = overflow.poll();
+        }
         return result;
     }
 
+    /**
+     *  Returns the approximate number of tasks waiting to be run.
+     */
+    public int getQueueDepth() {
+        return tasks.size() + overflow.size();
+    }
+
+    /**
+     *  Returns the number of tasks that could not fit in the ring buffer
+     *  and had to be added to the overflow queue.
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    /**
+     *  Returns the number of keyed tasks that replaced an already pending
+     *  task instead of being queued separately.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     *  Returns the number of tasks that were dropped because they were
+     *  enqueued during a replay.
+     */
+    public long getSuppressedCount() {
+        return suppressedCount.get();
+    }
+
+    /**
+     *  Returns the total number of tasks that have been run.
+     */
+    public long getExecutedCount() {
+        return executedCount;
+    }
+
+    /**
+     *  Returns the number of tasks that were run during the last update.
+     */
+    public int getLastExecutedCount() {
+        return lastExecutedCount;
+    }
+
+    /**
+     *  Returns the time in nanoseconds spent running tasks during the last update.
+     */
+    public long getLastUpdateNanos() {
+        return lastUpdateNanos;
+    }
+
     @Override
     public void update( SimTime time ) {
-        Runnable toRun;
-        while( (toRun = tasks.poll()) != null ) {
-            toRun.run();
+        int maxTasks = maxTasksPerFrame;
+        long maxNanos = maxNanosPerFrame;
+        long start = System.nanoTime();
+        int count = 0;
+        FrameRecorder recorder = getManager().getFrameRecorder();
+        try {
+            Runnable toRun;
+            while( (maxTasks < 0 || count < maxTasks) && (toRun = poll()) != null ) {
+                count++;
+                if( recorder != null ) {
+                    recorder.taskExecuted(getTaskType(toRun));
+                }
+                toRun.run();
+                if( maxNanos >= 0 && System.nanoTime() - start >= maxNanos ) {
+                    break;
+                }
+            }
+        } finally {
+            executedCount += count;
+            lastExecutedCount = count;
+            lastUpdateNanos = System.nanoTime() - start;
         }
     }
 
+    /**
+     *  Returns the type of the task that was originally given to the
+     *  dispatcher, unwrapping any of our own internal task wrappers.
+     */
+    private Class getTaskType( Runnable task ) {
+        if( task instanceof CallableTask ) {
+            return ((CallableTask)task).callable.getClass();
+        }
+        if( task instanceof KeyedTask ) {
+            return ((KeyedTask)task).task.getClass();
+        }
+        return task.getClass();
+    }
+
     @Override
     protected void initialize() {
     }
@@ -78,6 +345,35 @@ public class TaskDispatcher extends AbstractGameSystem {
     @Override
     protected void terminate() {
     }
-}
 
+    /**
+     *  Keeps track of the original callable so that its type can be
+     *  recorded.
+     */
+    private static class CallableTask<V> extends FutureTask<V> {
+        private final Callable<V> callable;
 
+        public CallableTask( Callable<V> callable ) {
+            super(callable);
+            this.callable = callable;
+        }
+    }
+
+    private class KeyedTask implements Runnable {
+        private final Object key;
+        private volatile Runnable task;
+
+        public KeyedTask( Object key, Runnable task ) {
+            this.key = key;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            // Remove first so that anyone replacing the task after this
+            // point will queue a new one instead.
+            keyedTasks.remove(key, this);
+            task.run();
+        }
+    }
+}
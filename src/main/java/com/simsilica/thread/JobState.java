@@ -60,6 +60,7 @@ public class JobState extends BaseAppState {
     public static final int DEFAULT_PRIORITY = Integer.MAX_VALUE;
 
     private int finishPerFrame = 1;
+    private long finishTimeBudget = 0;
 
     private WorkerPool workers;
 
@@ -81,10 +82,20 @@ public class JobState extends BaseAppState {
      *  finishable jobs will be finished each frame.
      */
     public JobState( String id, int poolSize, int finishPerFrame ) {
+        this(id, poolSize, finishPerFrame, WorkerPool.DEFAULT_MAX_BLOCKING_JOBS);
+    }
+
+    /**
+     *  Creates a new JobState with the specified ID, worker poolSize,
+     *  finishPerFrame count, and the maximum number of BlockingJobs that
+     *  may run at the same time.  Blocking jobs run on their own threads
+     *  and don't take up any of the poolSize worker threads.
+     */
+    public JobState( String id, int poolSize, int finishPerFrame, int maxBlockingJobs ) {
         super(id);
         this.finishPerFrame = finishPerFrame;
 
-        workers = new WorkerPool(poolSize);
+        workers = new WorkerPool(poolSize, maxBlockingJobs);
     }
 
     /**
@@ -101,6 +112,29 @@ public class JobState extends BaseAppState {
         return finishPerFrame;
     }
 
+    /**
+     *  Sets the amount of time each render frame may spend finishing completed
+     *  jobs.  When set to a value greater than 0 this is used instead of the
+     *  finishPerFrame count and completed jobs are finished in priority order
+     *  until the time is used up.  At least one job is always finished if any
+     *  are waiting.  Defaults to 0.
+     */
+    public void setFinishTimeBudget( long time, TimeUnit unit ) {
+        this.finishTimeBudget = unit.toNanos(time);
+    }
+
+    public long getFinishTimeBudget( TimeUnit unit ) {
+        return unit.convert(finishTimeBudget, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     *  Returns the number of jobs whose runOnUpdate() took longer than the
+     *  whole finish time budget.
+     */
+    public long getOverdueCount() {
+        return workers.getOverdueCount();
+    }
+
     /**
      *  Queues the job for execution on a background thread using the
      *  default priority.  Jobs with a lower priority value are executed
@@ -119,6 +153,18 @@ public class JobState extends BaseAppState {
         workers.execute(job, priority);
     }
 
+    /**
+     *  Queues the job for execution on a background thread using the
+     *  specified priority once the background part of all of the
+     *  prerequisite jobs has completed.  The prerequisites are then finished
+     *  on the render thread right before the job itself.
+     *
+     *  @see WorkerPool#executeAfter(Job, int, Job...)
+     */
+    public void executeAfter( Job job, int priority, Job... prerequisites ) {
+        workers.executeAfter(job, priority, prerequisites);
+    }
+
     /**
      *  Cancels a job that is still waiting in the queue.  Returns
      *  true if the job was canceled, false if not.  It is not
@@ -148,6 +194,14 @@ public class JobState extends BaseAppState {
         return workers.getPoolSize();
     }
 
+    /**
+     *  Returns the maximum number of BlockingJobs that will be run
+     *  at the same time.
+     */
+    public int getMaxBlockingJobs() {
+        return workers.getMaxBlockingJobs();
+    }
+
     /**
      *  Returns true if the worker pool has any pending work to do
      *  or is in the middle of doing that work.
@@ -213,7 +267,11 @@ public class JobState extends BaseAppState {
 
     @Override
     public void update( float tpf ) {
-        workers.update(finishPerFrame);
+        if( finishTimeBudget > 0 ) {
+            workers.update(finishTimeBudget, TimeUnit.NANOSECONDS);
+        } else {
+            workers.update(finishPerFrame);
+        }
         queuedCount.updateObject(workers.getQueuedJobCount());
         activeCount.updateObject(workers.getActiveJobCount());
     }
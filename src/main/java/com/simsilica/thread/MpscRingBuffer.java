@@ -0,0 +1,140 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.thread;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ *  A bounded, lock-free, multi-producer/single-consumer queue backed
+ *  by a ring buffer.  Any number of threads may call offer() but only one
+ *  thread at a time may call poll().  The slots are allocated up front so,
+ *  unlike ConcurrentLinkedQueue, adding and removing elements never creates
+ *  garbage.
+ *
+ *  <p>Based on Dmitry Vyukov's bounded MPMC queue where each slot carries
+ *  a sequence number that tells producers and the consumer whose turn it is.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class MpscRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> buffer;
+    private final AtomicLongArray sequence;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     *  Creates a ring buffer that can hold at least the specified number
+     *  of elements.  The capacity is rounded up to the next power of two.
+     */
+    public MpscRingBuffer( int capacity ) {
+        if( capacity < 2 ) {
+            capacity = 2;
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequence = new AtomicLongArray(size);
+        for( int i = 0; i < size; i++ ) {
+            sequence.set(i, i);
+        }
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     *  Adds the element to the queue if there is room.  Returns false if
+     *  the queue is full.  Safe to call from any thread.
+     */
+    public boolean offer( T element ) {
+        if( element == null ) {
+            throw new IllegalArgumentException("Element cannot be null");
+        }
+        while( true ) {
+            long pos = tail.get();
+            int index = (int)(pos & mask);
+            long diff = sequence.get(index) - pos;
+            if( diff == 0 ) {
+                // The slot is free for this position if we can claim it
+                if( tail.compareAndSet(pos, pos + 1) ) {
+                    buffer.lazySet(index, element);
+                    sequence.set(index, pos + 1);
+                    return true;
+                }
+            } else if( diff < 0 ) {
+                // The consumer hasn't freed this slot yet
+                return false;
+            }
+            // Else another producer claimed the position, try again
+        }
+    }
+
+    /**
+     *  Removes and returns the next element or null if the queue is
+     *  empty.  Only one thread at a time may call this method.
+     */
+    public T poll() {
+        long pos = head.get();
+        int index = (int)(pos & mask);
+        if( sequence.get(index) != pos + 1 ) {
+            // Empty or a producer has claimed the slot but not filled it yet
+            return null;
+        }
+        T result = buffer.get(index);
+        buffer.lazySet(index, null);
+        sequence.set(index, pos + mask + 1);
+        head.lazySet(pos + 1);
+        return result;
+    }
+
+    /**
+     *  Returns the approximate number of elements in the queue.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int)Math.max(0, Math.min(size, mask + 1));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
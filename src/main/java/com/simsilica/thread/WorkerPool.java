@@ -36,6 +36,7 @@
 
 package com.simsilica.thread;
 
+import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
@@ -49,6 +50,31 @@ import com.google.common.base.Throwables;
  *  have a two phase execution: 1) run on a background thread, 2)
  *  run on an update thread once completed.
  *
+ *  Queued jobs are kept in several independently locked priority heaps
+ *  (one per worker thread) instead of one shared queue so that submitting,
+ *  canceling, and re-prioritizing jobs from the update thread doesn't contend
+ *  with every worker on a single lock.  Each queued job knows its position in
+ *  its heap so canceling or changing its priority is O(log n).  Idle workers
+ *  take the best job from the heads of all of the heaps.
+ *
+ *  Jobs can also be queued with executeAfter() to run on a worker as soon
+ *  as the runOnWorker() of each of their prerequisite jobs has completed.
+ *  This lets multi-stage pipelines continue directly from one worker
+ *  stage to the next.  The runOnUpdate() of the prerequisites is then
+ *  deferred and called right before the dependent job's runOnUpdate().
+ *
+ *  A job is never run on two threads at once.  Each job is either idle,
+ *  queued, running, or running and dirty.  Executing a job that is already
+ *  queued only updates its priority.  Executing a job that is running marks
+ *  it dirty and it is queued once more when the current run completes, no
+ *  matter how many times it was executed in the meantime.
+ *
+ *  Jobs that implement BlockingJob are kept in their own queue and run on
+ *  a separate executor so that jobs waiting on I/O don't tie up the fixed
+ *  pool of worker threads.  At most maxBlockingJobs of them run at once.
+ *  When running on Java 21 or later the executor uses virtual threads,
+ *  otherwise it uses a cached pool of platform threads.
+ *
  *  This class is suitable for wrapping in AppStates or GameSystems.
  *
  *  @author    Paul Speed
@@ -58,19 +84,60 @@ public class WorkerPool {
 
     public static final int DEFAULT_PRIORITY = Integer.MAX_VALUE;
 
+    private static final AtomicInteger poolSequence = new AtomicInteger();
+    private static final Job[] NO_JOBS = new Job[0];
+
+    public static final int DEFAULT_MAX_BLOCKING_JOBS = 32;
+
     private int poolSize;
-    private ThreadPoolExecutor workers;
+    private final String poolName = "WorkerPool-" + poolSequence.incrementAndGet();
+    private final Thread[] threads;
+    private final Shard[] shards;
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    // One permit for every job in the shards
+    private final Semaphore available = new Semaphore(0);
+    private volatile boolean started;
 
-    // It's possible that this should also be a priority queu to make
-    // sure that objects get finished in priority order also.
+    // Blocking jobs are queued separately and run on their own executor
+    private final int maxBlockingJobs;
+    private final Shard blockingQueue = new Shard();
+    private final Semaphore blockingPermits;
+    private volatile ExecutorService blockingExecutor;
+
+    // Workers add completed jobs here and the update thread drains them
+    // into the finishing queue so that they are finished in priority order.
     private ConcurrentLinkedQueue<JobRunner> toFinish = new ConcurrentLinkedQueue<>();
 
+    // Only accessed from the update thread
+    private PriorityQueue<JobRunner> finishing = new PriorityQueue<>();
+
+    // Running estimate of how long a job's runOnUpdate() takes, only
+    // accessed from the update thread.
+    private double finishEstimate = -1;
+    private static final double ESTIMATE_WEIGHT = 0.1;
+
+    private AtomicLong overdueCount = new AtomicLong(0);
+
     private ConcurrentHashMap<Job, Job> queuedJobs = new ConcurrentHashMap<>();
 
     // An imperfect way of keeping track of the runners for a particular
     // job... but ok with the way it's used here.
     private ConcurrentHashMap<Job, JobRunner> runnerIndex = new ConcurrentHashMap<>();
 
+    // The runner for each job that is currently in runOnWorker()
+    private ConcurrentHashMap<Job, JobRunner> runningJobs = new ConcurrentHashMap<>();
+
+    // Guards the queuedJobs, runnerIndex, and runningJobs book-keeping for
+    // the jobs that hash to them so that a job's state changes atomically
+    // even when it is executed or canceled from multiple threads.  Never held
+    // while running a job.
+    private final Object[] stateLocks = new Object[64];
+
+    // The latest runner for each job from the time it is queued until it
+    // has been finished.  Used to find the prerequisites for executeAfter().
+    private ConcurrentHashMap<Job, JobRunner> activeRunners = new ConcurrentHashMap<>();
+
     private AtomicLong jobSequence = new AtomicLong(0);
 
     // To avoid race conditions when adding working jobs to the jobs
@@ -84,7 +151,7 @@ public class WorkerPool {
 
     private AtomicLong errorCount = new AtomicLong(0);
 
-    private boolean shuttingDown = false;
+    private volatile boolean shuttingDown = false;
 
     /**
      *  Creates a worker pool with 4 worker threads.
@@ -98,11 +165,203 @@ public class WorkerPool {
      *  threads.
      */
     public WorkerPool( int poolSize ) {
+        this(poolSize, DEFAULT_MAX_BLOCKING_JOBS);
+    }
+
+    /**
+     *  Creates a worker pool with the specified number of worker
+     *  threads and the specified maximum number of BlockingJobs that
+     *  may run at the same time.
+     */
+    public WorkerPool( int poolSize, int maxBlockingJobs ) {
+        if( poolSize < 1 ) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        if( maxBlockingJobs < 1 ) {
+            throw new IllegalArgumentException("Max blocking jobs must be at least 1");
+        }
+        this.maxBlockingJobs = maxBlockingJobs;
+        this.blockingPermits = new Semaphore(maxBlockingJobs);
         this.poolSize = poolSize;
+        this.threads = new Thread[poolSize];
+        this.shards = new Shard[poolSize];
+        for( int i = 0; i < poolSize; i++ ) {
+            shards[i] = new Shard();
+        }
+        for( int i = 0; i < stateLocks.length; i++ ) {
+            stateLocks[i] = new Object();
+        }
+    }
+
+    private Object stateLock( Job job ) {
+        int h = job.hashCode();
+        h ^= (h >>> 16);
+        return stateLocks[h & (stateLocks.length - 1)];
+    }
+
+    /**
+     *  Starts the worker threads the first time a job is queued.
+     */
+    private void startThreads() {
+        synchronized( threads ) {
+            if( started ) {
+                return;
+            }
+            for( int i = 0; i < threads.length; i++ ) {
+                threads[i] = new Thread(new Worker(), poolName + "-thread-" + (i + 1));
+                threads[i].start();
+            }
+            started = true;
+        }
+    }
+
+    /**
+     *  Adds the runner to the next shard in round-robin order and makes
+     *  it available to the workers.
+     */
+    private void enqueue( JobRunner runner ) {
+        if( runner.job instanceof BlockingJob ) {
+            blockingQueue.add(runner);
+            runBlocking();
+            return;
+        }
+        if( !started ) {
+            startThreads();
+        }
+        int index = (nextShard.getAndIncrement() & Integer.MAX_VALUE) % shards.length;
+        shards[index].add(runner);
+        available.release();
+    }
+
+    /**
+     *  Removes the runner from whatever shard it is queued in and returns
+     *  true if it was still queued.
+     */
+    private boolean dequeue( JobRunner runner ) {
+        Shard shard = runner.shard;
+        if( shard == null || !shard.remove(runner) ) {
+            return false;
+        }
+        if( shard != blockingQueue ) {
+            // Take back its permit.  If a worker already grabbed the permit
+            // then it will just find one less job and go back to waiting.
+            available.tryAcquire();
+        }
+        return true;
+    }
+
+    /**
+     *  Hands queued blocking jobs to the blocking executor for as long
+     *  as there are jobs and permits available.  Called whenever a blocking
+     *  job is queued or completes.
+     */
+    private void runBlocking() {
+        while( blockingPermits.tryAcquire() ) {
+            final JobRunner runner = blockingQueue.poll();
+            if( runner == null ) {
+                blockingPermits.release();
+                return;
+            }
+            try {
+                getBlockingExecutor().execute(new Runnable() {
+                    public void run() {
+                        try {
+                            runner.run();
+                        } finally {
+                            blockingPermits.release();
+                            if( !shuttingDown ) {
+                                runBlocking();
+                            }
+                        }
+                    }
+                });
+            } catch( RejectedExecutionException e ) {
+                // Shut down out from under us
+                blockingPermits.release();
+                return;
+            }
+        }
+    }
+
+    private ExecutorService getBlockingExecutor() {
+        ExecutorService result = blockingExecutor;
+        if( result != null ) {
+            return result;
+        }
+        synchronized( threads ) {
+            if( blockingExecutor == null ) {
+                blockingExecutor = createBlockingExecutor();
+            }
+            return blockingExecutor;
+        }
+    }
+
+    /**
+     *  Creates a virtual thread per task executor if the JVM supports
+     *  them, else a cached thread pool.
+     */
+    private ExecutorService createBlockingExecutor() {
+        try {
+            // Looked up reflectively so that we still run on Java 8
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService result = (ExecutorService)method.invoke(null);
+            log.info(poolName + " using virtual threads for blocking jobs");
+            return result;
+        } catch( NoSuchMethodException e ) {
+            // Pre-Java 21
+        } catch( ReflectiveOperationException | RuntimeException e ) {
+            log.warn("Error creating virtual thread executor, using platform threads", e);
+        }
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            public Thread newThread( Runnable r ) {
+                return new Thread(r, poolName + "-blocking-" + threadCount.incrementAndGet());
+            }
+        });
+    }
+
+    /**
+     *  Changes the priority of the runner if it is still queued and
+     *  returns true if it was.
+     */
+    private boolean reprioritize( JobRunner runner, int priority ) {
+        Shard shard = runner.shard;
+        if( shard == null ) {
+            if( !runner.scheduled.get() ) {
+                // Still waiting on prerequisites so it will be queued
+                // at the new priority
+                runner.priority = priority;
+                return true;
+            }
+            return false;
+        }
+        return shard.reprioritize(runner, priority);
+    }
 
-        // Need to do it manually if we want to give our own queue implementation.
-        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
-                                              new PriorityBlockingQueue<Runnable>());
+    /**
+     *  Removes and returns the best queued runner out of the heads of all
+     *  of the shards or null if all of the shards are empty.
+     */
+    private JobRunner pollBest() {
+        while( true ) {
+            Shard best = null;
+            JobRunner bestHead = null;
+            for( Shard shard : shards ) {
+                JobRunner head = shard.head;
+                if( head != null && (bestHead == null || head.compareTo(bestHead) < 0) ) {
+                    best = shard;
+                    bestHead = head;
+                }
+            }
+            if( best == null ) {
+                return null;
+            }
+            JobRunner result = best.poll();
+            if( result != null ) {
+                return result;
+            }
+            // Else another worker beat us to it so look again
+        }
     }
 
     /**
@@ -112,6 +371,14 @@ public class WorkerPool {
         return poolSize;
     }
 
+    /**
+     *  Returns the maximum number of BlockingJobs that will be run
+     *  at the same time.
+     */
+    public int getMaxBlockingJobs() {
+        return maxBlockingJobs;
+    }
+
     /**
      *  Queues the job for execution on a background thread using the
      *  default priority.  Jobs with a lower priority value are executed
@@ -128,45 +395,77 @@ public class WorkerPool {
      *  first.
      */
     public void execute( Job job, int priority ) {
-        // Right now we don't support changes in priority
-        Job old = queuedJobs.putIfAbsent(job, job);
-        if( old == null ) {
+        submit(job, priority, null);
+    }
+
+    /**
+     *  Queues the job to run on a background thread using the default
+     *  priority once the runOnWorker() of all of the prerequisite jobs
+     *  has completed.
+     *
+     *  @see #executeAfter(Job, int, Job...)
+     */
+    public void executeAfter( Job job, Job... prerequisites ) {
+        executeAfter(job, DEFAULT_PRIORITY, prerequisites);
+    }
+
+    /**
+     *  Queues the job to run on a background thread using the specified
+     *  priority once the runOnWorker() of all of the prerequisite jobs has
+     *  completed.  The prerequisites should already have been queued with
+     *  this pool.  Any that are not queued, running, or waiting to be finished
+     *  are considered already complete.  The runOnUpdate() of a prerequisite
+     *  that the job waited for is deferred until right before the job's own
+     *  runOnUpdate() so that a whole pipeline is finished together.
+     *  If a prerequisite fails or is canceled then the job is canceled, too,
+     *  along with any jobs that are waiting on it in turn.
+     *  The job counts as queued while it is waiting and it can be canceled.
+     *  If the job is already queued then only its priority is changed.
+     */
+    public void executeAfter( Job job, int priority, Job... prerequisites ) {
+        submit(job, priority, prerequisites);
+    }
+
+    private void submit( Job job, int priority, Job[] prerequisites ) {
+        if( shuttingDown ) {
+            throw new RejectedExecutionException("Worker pool has been shut down");
+        }
+        JobRunner runner;
+        boolean isNew = false;
+        synchronized( stateLock(job) ) {
+            runner = runnerIndex.get(job);
+            if( runner == null ) {
+                // It's a new job... or a new run of a job that is still running,
+                // in which case the job is now dirty and its new run waits for
+                // the current one to complete.
+                runner = new JobRunner(job, priority);
+                queuedJobs.put(job, job);
+                runnerIndex.put(job, runner);
+                activeRunners.put(job, runner);
+                JobRunner running = runningJobs.get(job);
+                if( running != null ) {
+                    runner.waiting.incrementAndGet();
+                    running.rerun = runner;
+                }
+                isNew = true;
+            }
+        }
+        if( isNew ) {
             if( log.isTraceEnabled() ) {
                 log.trace("Queuing:" + job + "  at:" + priority);
             }
-            // It's a new job
-            JobRunner runner = new JobRunner(job, priority);
-            runnerIndex.put(job, runner);
-            workers.execute(runner);
+            runner.waitFor(prerequisites);
         } else {
-            // We already have this job queued, what state is it in?
-            JobRunner runner = runnerIndex.get(job);
+            // We already have this job queued
             if( log.isTraceEnabled() ) {
                 log.trace("existing:" + runner + "  new priority:" + priority);
             }
-            if( runner == null ) {
-                // The job has been started or canceled since we grabbed it from queuedJobs.
-                // Better to be safe and run it again the regular way.
-                // Reset the queued jobs since we just added one
-                queuedJobs.remove(job);
-                // And just execute it again
-                execute(job, priority);
-                return;
-            }
-            // There is technically a possible race condition here where if
-            // two different threads execute the same job (or cancel + execute, execute + cancel, etc.)
-            // that might see the runner in the index but not in the queue.
-            // I think this would only be a problem if a separate thread was trying to cancel
-            // this job while we're executing it.  But I think 99% of the use cases, the same
-            // thread will be executing the job as will be canceling it.
             if( runner.priority != priority ) {
                 long start = System.nanoTime();
-                if( workers.getQueue().remove(runner) ) {
+                if( reprioritize(runner, priority) ) {
                     if( log.isTraceEnabled() ) {
                         log.trace("Requeing:" + job + "  at:" + priority);
                     }
-                    runner.priority = priority;
-                    workers.execute(runner);
                 }
                 long end = System.nanoTime();
                 if( log.isTraceEnabled() ) {
@@ -199,16 +498,23 @@ public class WorkerPool {
         if( log.isTraceEnabled() ) {
             log.trace("Attempting to cancel:" + job);
         }
-        if( workers.getQueue().remove(runner) ) {
-            // Then cleanup the book-keeping, too
-            queuedJobs.remove(job);
-            runnerIndex.remove(job);
-
-            // Note: the above assumes that the thread canceling the job
-            // is the same one that might call execute() else the race
-            // condition mentioned above could mean that we remove a
-            // just-added job.  Someday a write lock is probably warranted
-            // at least for the book-keeping updates.
+        if( runner.abandon() ) {
+            // It was still waiting on its prerequisites
+            if( log.isTraceEnabled() ) {
+                log.trace("Job canceled:" + job);
+            }
+            return true;
+        }
+        boolean removed;
+        synchronized( stateLock(job) ) {
+            removed = dequeue(runner);
+            if( removed ) {
+                // Then cleanup the book-keeping, too
+                runner.removeQueued();
+            }
+        }
+        if( removed ) {
+            runner.dropped();
             if( log.isTraceEnabled() ) {
                 log.trace("Job canceled:" + job);
             }
@@ -222,7 +528,8 @@ public class WorkerPool {
 
     /**
      *  Returns true if the job is already queued.  Note that this returns
-     *  false if the job is already being handled by a worker thread.
+     *  false if the job is already being handled by a worker thread unless
+     *  it has been executed again since it started.
      *  isQueued() is useful if you know that the 'job' object needs to
      *  be run again but want to avoid needlessly running it twice.
      *  If the job is already running then it is likely that it still
@@ -263,13 +570,45 @@ public class WorkerPool {
      *  have completed.
      */
     public void shutdownNow( boolean awaitTermination ) {
+        ExecutorService blocking;
         shuttingDown = true;
-        workers.shutdownNow();
+
+        // Runners are only queued while holding their state lock and after
+        // checking shuttingDown.  Passing through every lock once means that
+        // nothing can be added to the queues after we clear them.
+        for( Object lock : stateLocks ) {
+            synchronized( lock ) {
+            }
+        }
+        synchronized( threads ) {
+            for( Shard shard : shards ) {
+                shard.clear();
+            }
+            blockingQueue.clear();
+            queuedJobs.clear();
+            runnerIndex.clear();
+            blocking = blockingExecutor;
+        }
+        if( blocking != null ) {
+            blocking.shutdownNow();
+        }
+        if( started ) {
+            for( Thread thread : threads ) {
+                thread.interrupt();
+            }
+        }
         if( awaitTermination ) {
             log.info("Waiting for thread pool shutdown");
             try {
-                // Essentially wait forever
-                workers.awaitTermination(10000, TimeUnit.DAYS);
+                if( started ) {
+                    for( Thread thread : threads ) {
+                        thread.join();
+                    }
+                }
+                if( blocking != null ) {
+                    // Essentially wait forever
+                    blocking.awaitTermination(10000, TimeUnit.DAYS);
+                }
             } catch( InterruptedException e ) {
                 throw new RuntimeException("Interrupted waiting for shutdown", e);
             }
@@ -280,7 +619,7 @@ public class WorkerPool {
      *  Returns true if the worker pool has not been shutdown.
      */
     public boolean isRunning() {
-        return !workers.isShutdown();
+        return !shuttingDown;
     }
 
     /**
@@ -296,46 +635,498 @@ public class WorkerPool {
      *  Returns the amount of work actually performed.
      */
     public double update( double maxWork ) {
+        drainFinished();
         JobRunner job = null;
         double totalWork = 0;
-        while( (job = toFinish.poll()) != null ) {
+        while( (job = finishing.poll()) != null ) {
+            if( job.finished ) {
+                // Already finished along with a dependent job
+                continue;
+            }
             if( log.isTraceEnabled() ) {
                 log.trace("Finishing job:" + job.job + " at priority:" + job.priority);
             }
-            try {
-                double work = job.job.runOnUpdate();
+            double work = finish(job);
+            if( log.isTraceEnabled() ) {
+                log.trace("job:" + job.job + "  work:" + work + "  totalWork:" + totalWork + "  maxWork:" + maxWork);
+            }
+            totalWork += work;
+            if( maxWork >= 0 && totalWork >= maxWork ) {
+                // Any stragglers will be caught on the next pass
+                break;
+            }
+        }
+        return totalWork;
+    }
+
+    /**
+     *  Calls the runOnUpdate() method for any jobs that have been completed
+     *  by workers, in priority order, until the specified amount of time has
+     *  been used.  A job is not started if the estimated time of an average
+     *  runOnUpdate() would go past the budget but at least one job will always
+     *  be run if any jobs are pending.  Jobs that are left over are finished
+     *  on the next call.  A job whose runOnUpdate() alone takes longer than the
+     *  whole budget is logged as a warning and counted in getOverdueCount().
+     *  Returns the number of jobs finished.
+     */
+    public int update( long time, TimeUnit unit ) {
+        drainFinished();
+        long budget = unit.toNanos(time);
+        long start = System.nanoTime();
+        int count = 0;
+        JobRunner job = null;
+        while( (job = finishing.peek()) != null ) {
+            if( job.finished ) {
+                // Already finished along with a dependent job
+                finishing.poll();
+                continue;
+            }
+            long elapsed = System.nanoTime() - start;
+            if( count > 0 && elapsed + finishEstimate > budget ) {
                 if( log.isTraceEnabled() ) {
-                    log.trace("job:" + job.job + "  work:" + work + "  totalWork:" + totalWork + "  maxWork:" + maxWork);
+                    log.trace("Deferring " + finishing.size() + " jobs, elapsed:" + elapsed
+                              + "  estimate:" + finishEstimate + "  budget:" + budget);
                 }
-                totalWork += work;
-                if( maxWork >= 0 && totalWork >= maxWork ) {
-                    // Any stragglers will be caught on the next pass
+                break;
+            }
+            finishing.poll();
+            if( log.isTraceEnabled() ) {
+                log.trace("Finishing job:" + job.job + " at priority:" + job.priority);
+            }
+            long jobStart = System.nanoTime();
+            try {
+                finish(job);
+            } finally {
+                long jobTime = System.nanoTime() - jobStart;
+                if( finishEstimate < 0 ) {
+                    finishEstimate = jobTime;
+                } else {
+                    finishEstimate += (jobTime - finishEstimate) * ESTIMATE_WEIGHT;
+                }
+                if( jobTime > budget ) {
+                    overdueCount.incrementAndGet();
+                    log.warn("Job:" + job.job + " runOnUpdate() took:" + (jobTime / 1000000.0)
+                             + " ms, budget:" + (budget / 1000000.0) + " ms");
+                }
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     *  Returns the number of jobs whose runOnUpdate() took longer than the
+     *  whole time budget passed to update(time, unit).
+     */
+    public long getOverdueCount() {
+        return overdueCount.get();
+    }
+
+    /**
+     *  Returns the number of completed jobs that are waiting for their
+     *  runOnUpdate() to be called.  This should only be called from the
+     *  update thread.
+     */
+    public int getFinishingJobCount() {
+        drainFinished();
+        return finishing.size();
+    }
+
+    /**
+     *  Calls runOnUpdate() for the runner after first finishing any of
+     *  the prerequisites it waited for that haven't been finished yet.
+     *  Returns the total work reported.
+     */
+    private double finish( JobRunner runner ) {
+        runner.finished = true;
+        try {
+            double work = 0;
+            if( runner.prerequisites != null ) {
+                for( JobRunner prereq : runner.prerequisites ) {
+                    if( !prereq.finished ) {
+                        work += finish(prereq);
+                    }
+                }
+            }
+            return work + runner.job.runOnUpdate();
+        } catch( RuntimeException e ) {
+            errorCount.incrementAndGet();
+            throw e;
+        } finally {
+            activeCount.decrementAndGet();
+            activeRunners.remove(runner.job, runner);
+        }
+    }
+
+    /**
+     *  Moves completed jobs from the workers' queue into the
+     *  priority-ordered finishing queue.
+     */
+    private void drainFinished() {
+        JobRunner job = null;
+        while( (job = toFinish.poll()) != null ) {
+            finishing.add(job);
+        }
+    }
+
+    /**
+     *  The run loop of each worker thread.
+     */
+    private class Worker implements Runnable {
+        public void run() {
+            while( !shuttingDown ) {
+                try {
+                    available.acquire();
+                } catch( InterruptedException e ) {
+                    // Only expected on shutdown
+                    continue;
+                }
+                JobRunner runner = pollBest();
+                if( runner == null ) {
+                    // It was canceled after we got its permit
+                    continue;
+                }
+                try {
+                    runner.run();
+                } catch( RuntimeException | Error e ) {
+                    // Shouldn't happen as the runner catches its own job's errors
+                    // but we don't want to lose the thread.
+                    log.error("Error in worker thread", e);
+                }
+            }
+        }
+    }
+
+    /**
+     *  A binary heap of queued runners where each runner keeps track of its
+     *  own index so that it can be removed or re-prioritized in O(log n).
+     */
+    private class Shard {
+        private JobRunner[] heap = new JobRunner[16];
+        private int size;
+
+        // The current best runner so that workers can compare
+        // shards without locking them.
+        private volatile JobRunner head;
+
+        public synchronized void add( JobRunner runner ) {
+            if( size == heap.length ) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            heap[size] = runner;
+            runner.heapIndex = size;
+            runner.shard = this;
+            size++;
+            siftUp(size - 1);
+            head = heap[0];
+        }
+
+        public synchronized JobRunner poll() {
+            if( size == 0 ) {
+                return null;
+            }
+            JobRunner result = heap[0];
+            removeAt(0);
+            return result;
+        }
+
+        public synchronized boolean remove( JobRunner runner ) {
+            if( runner.shard != this ) {
+                return false;
+            }
+            removeAt(runner.heapIndex);
+            return true;
+        }
+
+        public synchronized boolean reprioritize( JobRunner runner, int priority ) {
+            if( runner.shard != this ) {
+                return false;
+            }
+            int old = runner.priority;
+            runner.priority = priority;
+            if( priority < old ) {
+                siftUp(runner.heapIndex);
+            } else {
+                siftDown(runner.heapIndex);
+            }
+            head = heap[0];
+            return true;
+        }
+
+        public synchronized void clear() {
+            for( int i = 0; i < size; i++ ) {
+                heap[i].shard = null;
+                heap[i] = null;
+            }
+            size = 0;
+            head = null;
+        }
+
+        private void removeAt( int index ) {
+            JobRunner removed = heap[index];
+            removed.shard = null;
+            removed.heapIndex = -1;
+            size--;
+            JobRunner last = heap[size];
+            heap[size] = null;
+            if( index != size ) {
+                heap[index] = last;
+                last.heapIndex = index;
+                siftDown(index);
+                if( heap[index] == last ) {
+                    siftUp(index);
+                }
+            }
+            head = size > 0 ? heap[0] : null;
+        }
+
+        private void siftUp( int index ) {
+            JobRunner runner = heap[index];
+            while( index > 0 ) {
+                int parent = (index - 1) >>> 1;
+                JobRunner p = heap[parent];
+                if( runner.compareTo(p) >= 0 ) {
                     break;
                 }
-            } catch( RuntimeException e ) {
-                errorCount.incrementAndGet();
-                throw e;
-            } finally {
-                activeCount.decrementAndGet();
+                heap[index] = p;
+                p.heapIndex = index;
+                index = parent;
             }
+            heap[index] = runner;
+            runner.heapIndex = index;
+        }
+
+        private void siftDown( int index ) {
+            JobRunner runner = heap[index];
+            int half = size >>> 1;
+            while( index < half ) {
+                int child = (index << 1) + 1;
+                JobRunner c = heap[child];
+                int right = child + 1;
+                if( right < size && heap[right].compareTo(c) < 0 ) {
+                    child = right;
+                    c = heap[child];
+                }
+                if( runner.compareTo(c) <= 0 ) {
+                    break;
+                }
+                heap[index] = c;
+                c.heapIndex = index;
+                index = child;
+            }
+            heap[index] = runner;
+            runner.heapIndex = index;
         }
-        return totalWork;
     }
 
     private class JobRunner implements Runnable, Comparable<JobRunner> {
         private Job job;
-        private int priority;
+        private volatile int priority;
+
+        // Where this runner is queued, only changed while holding
+        // the shard's lock.
+        private volatile Shard shard;
+        private int heapIndex = -1;
 
         // Keep a job ID just to make sure we can always sort
         // jobs even if their priority is the same.  Earlier job
         // wins in that case.
         private long jobId = jobSequence.getAndIncrement();
 
+        // Set once the runner has been given to the workers or abandoned,
+        // whichever happens first.
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        // The number of prerequisites still running plus one while
+        // they are being registered.
+        private final AtomicInteger waiting = new AtomicInteger(1);
+
+        // The runner's own worker stage plus one for every dependent
+        // that hasn't run yet.  The runner goes to the finish queue when
+        // this reaches 0.  Dependents that do run finish it themselves.
+        private final AtomicInteger holds = new AtomicInteger(1);
+
+        // Only changed while holding 'this'
+        private boolean workerDone;
+        private volatile boolean dropped;
+        private List<JobRunner> dependents;
+
+        // The next run of the same job if it was executed again while
+        // this one was running, ie: the job is dirty.  Guarded by the
+        // job's state lock.
+        private JobRunner rerun;
+
+        // The prerequisites this runner waited for, set before it is
+        // scheduled.
+        private List<JobRunner> prerequisites;
+
+        // Only accessed from the update thread
+        private boolean finished;
+
         public JobRunner( Job job, int priority ) {
             this.job = job;
             this.priority = priority;
         }
 
+        /**
+         *  Schedules this runner once the prerequisite jobs have completed
+         *  their runOnWorker().
+         */
+        protected void waitFor( Job[] jobs ) {
+            boolean abandon = false;
+            for( Job prereq : (jobs == null ? NO_JOBS : jobs) ) {
+                JobRunner runner = activeRunners.get(prereq);
+                if( runner == null || runner == this ) {
+                    // Already complete
+                    continue;
+                }
+                synchronized( runner ) {
+                    if( runner.dropped ) {
+                        abandon = true;
+                    }
+                    if( runner.workerDone ) {
+                        continue;
+                    }
+                    if( runner.dependents == null ) {
+                        runner.dependents = new ArrayList<>();
+                    }
+                    runner.dependents.add(this);
+                    runner.holds.incrementAndGet();
+                }
+                if( prerequisites == null ) {
+                    prerequisites = new ArrayList<>();
+                }
+                prerequisites.add(runner);
+                waiting.incrementAndGet();
+            }
+            if( abandon ) {
+                abandon();
+            } else {
+                prerequisiteDone();
+            }
+        }
+
+        protected void prerequisiteDone() {
+            if( waiting.decrementAndGet() != 0 || !scheduled.compareAndSet(false, true) ) {
+                return;
+            }
+            synchronized( stateLock(job) ) {
+                if( !shuttingDown ) {
+                    if( log.isTraceEnabled() ) {
+                        log.trace("Scheduling:" + job + "  at:" + priority);
+                    }
+                    enqueue(this);
+                    return;
+                }
+                removeQueued();
+            }
+            // The pool was shut down before this runner could be queued
+            dropped();
+        }
+
+        /**
+         *  Cancels this runner if it is still waiting on prerequisites
+         *  and returns true if it was.
+         */
+        protected boolean abandon() {
+            if( !scheduled.compareAndSet(false, true) ) {
+                return false;
+            }
+            if( log.isDebugEnabled() ) {
+                log.debug("Abandoning job:" + job);
+            }
+            synchronized( stateLock(job) ) {
+                removeQueued();
+            }
+            dropped();
+            return true;
+        }
+
+        /**
+         *  Removes this runner from the queued book-keeping if it is still
+         *  the job's queued runner.  Must be called while holding the job's
+         *  state lock.
+         */
+        protected void removeQueued() {
+            if( runnerIndex.remove(job, this) ) {
+                queuedJobs.remove(job);
+            }
+        }
+
+        /**
+         *  Moves the job from queued to running.
+         */
+        protected void started() {
+            synchronized( stateLock(job) ) {
+                runningJobs.put(job, this);
+                removeQueued();
+            }
+        }
+
+        /**
+         *  Moves the job from running to idle or, if it was executed again
+         *  while running, schedules its next run.
+         */
+        protected void ended() {
+            JobRunner next;
+            synchronized( stateLock(job) ) {
+                runningJobs.remove(job, this);
+                next = rerun;
+                rerun = null;
+            }
+            if( next != null ) {
+                next.prerequisiteDone();
+            }
+        }
+
+        /**
+         *  Called when this runner will never complete.  Releases its
+         *  prerequisites to be finished on their own and abandons any
+         *  dependents.
+         */
+        protected void dropped() {
+            List<JobRunner> list;
+            synchronized( this ) {
+                workerDone = true;
+                dropped = true;
+                list = dependents;
+                dependents = null;
+            }
+            activeRunners.remove(job, this);
+            if( prerequisites != null ) {
+                for( JobRunner prereq : prerequisites ) {
+                    prereq.release();
+                }
+            }
+            if( list != null ) {
+                for( JobRunner dependent : list ) {
+                    dependent.abandon();
+                }
+            }
+        }
+
+        protected void workerDone() {
+            List<JobRunner> list;
+            synchronized( this ) {
+                workerDone = true;
+                list = dependents;
+                dependents = null;
+            }
+            if( list != null ) {
+                for( JobRunner dependent : list ) {
+                    dependent.prerequisiteDone();
+                }
+            }
+            release();
+        }
+
+        protected void release() {
+            // A failed or canceled job never gets finished
+            if( holds.decrementAndGet() == 0 && !dropped ) {
+                toFinish.add(this);
+            }
+        }
+
         public int compareTo( JobRunner other ) {
             if( priority < other.priority ) {
                 return -1;
@@ -353,38 +1144,41 @@ public class WorkerPool {
         public void run() {
             activeCount.incrementAndGet();
 
-            // We're running now so remove from the active set
-            queuedJobs.remove(job);
-            runnerIndex.remove(job);
+            // Anything executing the job again from here on will wait
+            // for this run to complete instead of running in parallel.
+            started();
 
             if( log.isTraceEnabled() ) {
                 log.trace("Running background job:" + job + " at priority:" + priority);
             }
             try {
-                // Never ever run a job instance in parallel with itself.
-                // Since we clear the queuedJobs and runnerIndex right at the beginning,
-                // it can happen that a job gets queued again while still running.  A
-                // very attentive worker pool could get a crack at it before the first
-                // execution was complete.  A sign that we need to refactor how jobs
-                // are run to be more action-queue based.  As it stands, running one
-                // long-running job a bunch of times can hang a pool.
-                synchronized(job) {
-                    job.runOnWorker();
-                }
+                job.runOnWorker();
             } catch( Exception e ) {
+                ended();
                 if( shuttingDown && Throwables.getRootCause(e) instanceof InterruptedException ) {
                     log.info("Thread interrupted successfully");
                 } else {
                     log.error("Error running job:" + job, e);
-                    activeCount.decrementAndGet();
                     errorCount.incrementAndGet();
                 }
+                // Either way, this run will never be finished
+                activeCount.decrementAndGet();
+                dropped();
                 return;
+            } catch( Error e ) {
+                // Still release the job's running state so that it can be
+                // executed again, then let the worker report it.
+                ended();
+                activeCount.decrementAndGet();
+                errorCount.incrementAndGet();
+                dropped();
+                throw e;
             }
             if( log.isTraceEnabled() ) {
                 log.trace("Job runOnWorker() done:" + job);
             }
-            toFinish.add(this);
+            ended();
+            workerDone();
         }
 
         @Override
@@ -0,0 +1,120 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.util;
+
+
+/**
+ *  Keeps track of the last N time values and provides min, max, mean,
+ *  and percentile statistics over that sliding window.  The samples and
+ *  histogram are allocated up front so adding values never creates garbage.
+ *  This class is thread safe.
+ *
+ *  @author    Paul Speed
+ */
+public class RollingTimeWindow {
+
+    private final long[] samples;
+    private final TimeHistogram histogram = new TimeHistogram();
+    private int next;
+    private int size;
+
+    public RollingTimeWindow( int capacity ) {
+        if( capacity < 1 ) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.samples = new long[capacity];
+    }
+
+    public int getCapacity() {
+        return samples.length;
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     *  Adds a value to the window, pushing out the oldest value if the
+     *  window is full.
+     */
+    public synchronized void add( long nanos ) {
+        if( size == samples.length ) {
+            histogram.remove(samples[next]);
+        } else {
+            size++;
+        }
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        histogram.record(nanos);
+    }
+
+    public synchronized void reset() {
+        histogram.reset();
+        next = 0;
+        size = 0;
+    }
+
+    /**
+     *  Returns the value at the specified percentile (0-100) of the
+     *  values currently in the window.
+     */
+    public synchronized long getValueAtPercentile( double percentile ) {
+        return histogram.getValueAtPercentile(percentile);
+    }
+
+    /**
+     *  Returns a snapshot of the statistics for the values currently
+     *  in the window.
+     */
+    public synchronized TimeStats getStats() {
+        if( size == 0 ) {
+            return TimeStats.EMPTY;
+        }
+        // The histogram's min/max can't track values leaving the window
+        // so we find them directly.
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for( int i = 0; i < size; i++ ) {
+            min = Math.min(min, samples[i]);
+            max = Math.max(max, samples[i]);
+        }
+        return new TimeStats(size, min, max, histogram.getMean(),
+                             TimeHistogram.clamp(histogram.getValueAtPercentile(50), min, max),
+                             TimeHistogram.clamp(histogram.getValueAtPercentile(95), min, max),
+                             TimeHistogram.clamp(histogram.getValueAtPercentile(99), min, max));
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.util;
+
+
+/**
+ *  A fixed-size histogram of nanosecond time values in the style of
+ *  HdrHistogram.  Values below 64 ns are counted exactly and larger values
+ *  are counted in log-linear buckets with 32 sub-buckets per power of two,
+ *  ie: a relative precision of about 3%.  Values larger than about 18 minutes
+ *  are clamped to the largest bucket.
+ *
+ *  <p>The bucket array is allocated once so recording and querying values
+ *  never creates garbage, which makes it suitable for tracking timings on
+ *  every frame.  This class is not thread safe.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class TimeHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_MAGNITUDE = 39;
+    private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    private static final int BUCKET_COUNT = SUB_COUNT + (MAX_MAGNITUDE - SUB_BITS + 1) * SUB_COUNT;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count;
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public TimeHistogram() {
+    }
+
+    protected static int bucketIndex( long value ) {
+        if( value < SUB_COUNT ) {
+            return (int)Math.max(0, value);
+        }
+        if( value > MAX_VALUE ) {
+            value = MAX_VALUE;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BITS;
+        int sub = (int)(value >>> shift) - SUB_COUNT;
+        return SUB_COUNT + shift * SUB_COUNT + sub;
+    }
+
+    /**
+     *  Returns the largest value that would be counted in the specified
+     *  bucket.
+     */
+    protected static long highestEquivalentValue( int index ) {
+        if( index < SUB_COUNT ) {
+            return index;
+        }
+        int shift = (index - SUB_COUNT) / SUB_COUNT;
+        int sub = (index - SUB_COUNT) % SUB_COUNT;
+        return ((long)(SUB_COUNT + sub + 1) << shift) - 1;
+    }
+
+    /**
+     *  Records the specified time value.
+     */
+    public void record( long nanos ) {
+        counts[bucketIndex(nanos)]++;
+        count++;
+        total += nanos;
+        if( nanos < min ) {
+            min = nanos;
+        }
+        if( nanos > max ) {
+            max = nanos;
+        }
+    }
+
+    /**
+     *  Removes a value that was previously recorded.  This is used for
+     *  sliding windows.  Note: the min and max values are not adjusted by
+     *  remove() because they can't be recovered from the buckets.
+     */
+    public void remove( long nanos ) {
+        int index = bucketIndex(nanos);
+        if( counts[index] == 0 ) {
+            throw new IllegalArgumentException("Value was never recorded:" + nanos);
+        }
+        counts[index]--;
+        count--;
+        total -= nanos;
+    }
+
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double)total / count;
+    }
+
+    /**
+     *  Returns the smallest value ever recorded since the last reset or 0
+     *  if there are no values.
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     *  Returns the largest value ever recorded since the last reset or 0
+     *  if there are no values.
+     */
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     *  Returns the value at the specified percentile (0-100), ie: the largest
+     *  value in the bucket containing that percentile's sample.
+     */
+    public long getValueAtPercentile( double percentile ) {
+        if( count == 0 ) {
+            return 0;
+        }
+        long target = (long)Math.ceil(Math.min(percentile, 100.0) / 100.0 * count);
+        target = Math.max(1, target);
+        long sum = 0;
+        for( int i = 0; i < counts.length; i++ ) {
+            sum += counts[i];
+            if( sum >= target ) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return highestEquivalentValue(counts.length - 1);
+    }
+
+    /**
+     *  Returns a snapshot of the current statistics.
+     */
+    public TimeStats getStats() {
+        if( count == 0 ) {
+            return TimeStats.EMPTY;
+        }
+        return new TimeStats(count, min, max, getMean(),
+                             clamp(getValueAtPercentile(50), min, max),
+                             clamp(getValueAtPercentile(95), min, max),
+                             clamp(getValueAtPercentile(99), min, max));
+    }
+
+    protected static long clamp( long value, long min, long max ) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.event;
+
+import groovy.transform.CompileStatic;
+import groovy.transform.PackageScope;
+
+/**
+ *  Measures the time to publish one event to 1, 10, and 100 method
+ *  listeners, reporting the best of 15 runs.  Listeners of a public class
+ *  are called through generated invokers while listeners of a package-private
+ *  class are called reflectively.  This is not a unit test because wall clock
+ *  timings aren't reliable enough to assert on.  Run it with main() and
+ *  optionally pass "reflective" or "generated" to measure only one kind of
+ *  listener so that each can be run in its own JVM.
+ *
+ *  @author    Paul Speed
+ */
+@CompileStatic
+public class EventBusDispatchBenchmark {
+
+    static final EventType<Object> benchEvent = EventType.create("Bench", Object.class);
+
+    public static void main( String... args ) {
+        String mode = args.length > 0 ? args[0] : null;
+        for( int listeners : [1, 10, 100] ) {
+            if( mode == null || mode == "reflective" ) {
+                System.out.println(String.format("%4d listeners, reflective: %.1f ns per publish",
+                                                 listeners, nanosPerPublish(listeners, false)));
+            }
+            if( mode == null || mode == "generated" ) {
+                System.out.println(String.format("%4d listeners, generated: %.1f ns per publish",
+                                                 listeners, nanosPerPublish(listeners, true)));
+            }
+        }
+    }
+
+    private static double nanosPerPublish( int listeners, boolean generated ) {
+        EventBus bus = new EventBus();
+        for( int i = 0; i < listeners; i++ ) {
+            bus.addListenerMethods(generated ? new PublicListener() : new PackageListener(), benchEvent);
+        }
+
+        Object event = new Object();
+        int publishes = Math.max(20000, 2000000 / listeners);
+        long best = Long.MAX_VALUE;
+        for( int run = 0; run < 15; run++ ) {
+            long start = System.nanoTime();
+            for( int i = 0; i < publishes; i++ ) {
+                bus.publishEvent(benchEvent, event);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / (double)publishes;
+    }
+
+    public static class PublicListener {
+        int count;
+
+        public void onBench( Object event ) {
+            count++;
+        }
+    }
+
+    @PackageScope
+    static class PackageListener {
+        int count;
+
+        public void onBench( Object event ) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,623 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.event;
+
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import groovy.transform.CompileStatic;
+
+import com.simsilica.test.Allocations;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class EventBusTests {
+
+    static final EventType<Object> testEvent = EventType.create("Test", Object.class);
+    static final EventType<Object> unheardEvent = EventType.create("Unheard", Object.class);
+
+    @CompileStatic
+    static class AllocationTest extends GroovyTestCase {
+        public void testPublishOneListener() {
+            checkPublish(1);
+        }
+
+        public void testPublishTenListeners() {
+            checkPublish(10);
+        }
+
+        public void testPublishHundredListeners() {
+            checkPublish(100);
+        }
+
+        public void testPublishUndelivered() {
+            EventBus bus = new EventBus();
+            long allocated = measureAllocation(bus, unheardEvent, 10000);
+            assert allocated < 10000 : "Allocated " + allocated + " bytes over 10000 undelivered publishes";
+        }
+
+        private static void checkPublish( int listenerCount ) {
+            EventBus bus = new EventBus();
+            for( int i = 0; i < listenerCount; i++ ) {
+                if( i % 2 == 0 ) {
+                    bus.addEventListener(testEvent, new CountingListener());
+                } else {
+                    bus.addListenerMethods(new MethodListener(), testEvent);
+                }
+            }
+            int count = 10000;
+            long allocated = measureAllocation(bus, testEvent, count);
+            assert allocated < count : "Allocated " + allocated + " bytes over " + count + " publishes to " + listenerCount + " listeners";
+        }
+
+        private static long measureAllocation( EventBus bus, EventType<Object> type, int count ) {
+            Object event = new Object();
+
+            // Warm up so that any lazy setup is out of the way
+            for( int i = 0; i < count; i++ ) {
+                bus.publishEvent(type, event);
+            }
+
+            long start = Allocations.threadAllocatedBytes();
+            for( int i = 0; i < count; i++ ) {
+                bus.publishEvent(type, event);
+            }
+            return Allocations.threadAllocatedBytes() - start;
+        }
+    }
+
+    static class ClassLoaderTest extends GroovyTestCase {
+        public void testChildClassLoaderListener() {
+            // Like a plugin or script, the listener's class can't be seen
+            // from EventBus's own class loader.
+            def loader = new GroovyClassLoader(EventBusTests.class.getClassLoader());
+            Class type = loader.parseClass("""
+                package plugin;
+                public class ChildListener {
+                    public int count;
+                    public void onTest( Object event ) {
+                        count++;
+                    }
+                }
+                """);
+            shouldFail(ClassNotFoundException) {
+                Class.forName(type.getName(), false, EventBus.class.getClassLoader());
+            }
+
+            EventBus bus = new EventBus();
+            def listener = type.newInstance();
+            bus.addListenerMethods(listener, testEvent);
+            bus.publishEvent(testEvent, new Object());
+            assert listener.count == 1;
+        }
+    }
+
+    static class ChannelTest extends GroovyTestCase {
+        public void testDeliverQueued() {
+            EventBus bus = new EventBus();
+            def received = recordEvents(bus);
+            bus.bindDelivery(testEvent, null);
+            bus.publishEvent(testEvent, 1);
+            bus.publishEvent(testEvent, 2);
+            assert received == [];
+            assert bus.getQueuedCount(testEvent) == 2;
+
+            assert bus.deliverQueued() == 2;
+            assert received == [1, 2];
+            assert bus.getQueuedCount(testEvent) == 0;
+        }
+
+        public void testExecutorDelivery() {
+            EventBus bus = new EventBus();
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                def threads = Collections.synchronizedList([]);
+                def received = recordEvents(bus);
+                bus.addEventListener(testEvent, { type, event -> threads.add(Thread.currentThread()) } as EventListener);
+                bus.bindDelivery(testEvent, executor);
+                (1..100).each { bus.publishEvent(testEvent, it) }
+
+                awaitCount(received, 100);
+                assert received == (1..100).toList();
+                assert !threads.contains(Thread.currentThread());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        public void testUnbindDeliversQueued() {
+            EventBus bus = new EventBus();
+            def received = recordEvents(bus);
+            bus.bindDelivery(testEvent, null);
+            bus.publishEvent(testEvent, 1);
+            bus.unbindDelivery(testEvent);
+            assert received == [1];
+            bus.publishEvent(testEvent, 2);
+            assert received == [1, 2];
+        }
+    }
+
+    static class BackPressureTest extends GroovyTestCase {
+        public void testDropNewest() {
+            EventBus bus = new EventBus();
+            def received = recordEvents(bus);
+            bus.bindDelivery(testEvent, null, 2, EventBus.BackPressure.DropNewest);
+            (1..4).each { bus.publishEvent(testEvent, it) }
+
+            assert bus.getDroppedCount(testEvent) == 2;
+            bus.deliverQueued();
+            assert received == [1, 2];
+        }
+
+        public void testDropOldest() {
+            EventBus bus = new EventBus();
+            def received = recordEvents(bus);
+            bus.bindDelivery(testEvent, null, 2, EventBus.BackPressure.DropOldest);
+            (1..4).each { bus.publishEvent(testEvent, it) }
+
+            assert bus.getDroppedCount(testEvent) == 2;
+            bus.deliverQueued();
+            assert received == [3, 4];
+        }
+
+        public void testBlockWithoutExecutor() {
+            EventBus bus = new EventBus();
+            def received = recordEvents(bus);
+            bus.bindDelivery(testEvent, null, 2, EventBus.BackPressure.Block);
+
+            // Nothing else will deliver so a full queue is delivered
+            // on the publishing thread
+            runWithTimeout {
+                (1..4).each { bus.publishEvent(testEvent, it) }
+            }
+            assert received == [1, 2];
+            assert bus.getQueuedCount(testEvent) == 2;
+            assert bus.getDroppedCount(testEvent) == 0;
+            bus.deliverQueued();
+            assert received == [1, 2, 3, 4];
+        }
+
+        public void testBlockWaitsForExecutor() {
+            EventBus bus = new EventBus();
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                CountDownLatch delivering = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                def received = recordEvents(bus);
+                bus.addEventListener(testEvent, { type, event ->
+                        delivering.countDown();
+                        release.await();
+                    } as EventListener);
+                bus.bindDelivery(testEvent, executor, 1, EventBus.BackPressure.Block);
+
+                bus.publishEvent(testEvent, 1);
+                delivering.await();
+                bus.publishEvent(testEvent, 2);
+
+                // The queue is full so the next publish waits for the executor
+                Thread publisher = Thread.start {
+                    bus.publishEvent(testEvent, 3);
+                }
+                waitForState(publisher, Thread.State.WAITING);
+                assert bus.getQueuedCount(testEvent) == 1;
+
+                release.countDown();
+                publisher.join(10000);
+                assert !publisher.isAlive();
+                awaitCount(received, 3);
+                assert received == [1, 2, 3];
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        public void testRepublishFromDeliveryThread() {
+            EventBus bus = new EventBus();
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                def received = recordEvents(bus);
+                bus.addEventListener(testEvent, { type, event ->
+                        if( event == 1 ) {
+                            // Fills the queue from the thread that would
+                            // have to empty it
+                            bus.publishEvent(testEvent, 2);
+                            bus.publishEvent(testEvent, 3);
+                        }
+                    } as EventListener);
+                bus.bindDelivery(testEvent, executor, 1, EventBus.BackPressure.Block);
+
+                bus.publishEvent(testEvent, 1);
+                awaitCount(received, 3);
+                assert received.sort() == [1, 2, 3];
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        public void testInterruptedPublisher() {
+            EventBus bus = new EventBus();
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                CountDownLatch release = new CountDownLatch(1);
+                bus.addEventListener(testEvent, { type, event -> release.await() } as EventListener);
+                bus.bindDelivery(testEvent, executor, 1, EventBus.BackPressure.Block);
+                bus.publishEvent(testEvent, 1);
+                bus.publishEvent(testEvent, 2);
+
+                def error = null;
+                boolean interrupted = false;
+                Thread publisher = Thread.start {
+                    try {
+                        bus.publishEvent(testEvent, 3);
+                    } catch( RuntimeException e ) {
+                        error = e;
+                        interrupted = Thread.currentThread().isInterrupted();
+                    }
+                }
+                waitForState(publisher, Thread.State.WAITING);
+                publisher.interrupt();
+                publisher.join(10000);
+
+                assert error?.cause instanceof InterruptedException;
+                assert interrupted;
+                release.countDown();
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    static class CoalescingTest extends GroovyTestCase {
+        public void testLatestReplacesQueued() {
+            EventBus bus = new EventBus();
+            def received = recordEvents(bus);
+            bus.setCoalescing(testEvent, { it.k } as Function);
+            bus.publishEvent(testEvent, [k:1, v:"old"]);
+            bus.publishEvent(testEvent, [k:2, v:"other"]);
+            bus.publishEvent(testEvent, [k:1, v:"new"]);
+
+            assert bus.getQueuedCount(testEvent) == 2;
+            assert bus.getCoalescedCount(testEvent) == 1;
+            assert bus.deliverQueued(testEvent) == 2;
+            // The newer event takes the older one's place
+            assert received == [[k:1, v:"new"], [k:2, v:"other"]];
+        }
+
+        public void testTurnOffCoalescing() {
+            EventBus bus = new EventBus();
+            def received = recordEvents(bus);
+            bus.setCoalescing(testEvent, { it.k } as Function);
+            bus.publishEvent(testEvent, [k:1, v:"old"]);
+            bus.publishEvent(testEvent, [k:1, v:"new"]);
+            bus.setCoalescing(testEvent, null);
+            bus.publishEvent(testEvent, [k:1, v:"newer"]);
+
+            bus.deliverQueued(testEvent);
+            assert received == [[k:1, v:"new"], [k:1, v:"newer"]];
+        }
+
+        public void testChangeKey() {
+            EventBus bus = new EventBus();
+            def received = recordEvents(bus);
+            bus.setCoalescing(testEvent, { it.k } as Function);
+            bus.publishEvent(testEvent, [k:1, g:"a", v:"old"]);
+            bus.publishEvent(testEvent, [k:2, g:"a", v:"other"]);
+            bus.publishEvent(testEvent, [k:1, g:"a", v:"new"]);
+
+            // Now the queued events coalesce by group
+            bus.setCoalescing(testEvent, { it.g } as Function);
+            assert bus.getQueuedCount(testEvent) == 1;
+            bus.publishEvent(testEvent, [k:3, g:"b", v:"last"]);
+
+            bus.deliverQueued(testEvent);
+            assert received == [[k:2, g:"a", v:"other"], [k:3, g:"b", v:"last"]];
+        }
+    }
+
+    static class PriorityTest extends GroovyTestCase {
+        public void testDeliveredInPriorityOrder() {
+            EventBus bus = new EventBus();
+            def received = recordEvents(bus);
+            bus.bindDelivery(testEvent, null);
+            bus.publishEvent(testEvent, 1);
+            bus.setPriority(testEvent, { a, b -> b <=> a } as Comparator);
+            bus.publishEvent(testEvent, 3);
+            bus.publishEvent(testEvent, 2);
+
+            // Already queued events are reordered too
+            assert bus.deliverQueued(testEvent) == 3;
+            assert received == [3, 2, 1];
+        }
+
+        public void testCoalescedEventKeepsPlace() {
+            EventBus bus = new EventBus();
+            def received = recordEvents(bus);
+            bus.setPriority(testEvent, { a, b -> a.p <=> b.p } as Comparator);
+            bus.setCoalescing(testEvent, { it.k } as Function);
+            bus.publishEvent(testEvent, [k:1, p:2, v:"old"]);
+            bus.publishEvent(testEvent, [k:2, p:1, v:"other"]);
+            bus.publishEvent(testEvent, [k:1, p:0, v:"new"]);
+
+            bus.deliverQueued(testEvent);
+            assert received == [[k:2, p:1, v:"other"], [k:1, p:0, v:"new"]];
+        }
+
+        public void testTurnOffPriority() {
+            EventBus bus = new EventBus();
+            def received = recordEvents(bus);
+            bus.setPriority(testEvent, { a, b -> b <=> a } as Comparator);
+            bus.publishEvent(testEvent, 1);
+            bus.publishEvent(testEvent, 2);
+            bus.setPriority(testEvent, null);
+            bus.publishEvent(testEvent, 3);
+
+            bus.deliverQueued(testEvent);
+            assert received == [2, 1, 3];
+        }
+    }
+
+    static class ParentTest extends GroovyTestCase {
+        public void testForwardedOnce() {
+            EventBus root = new EventBus();
+            EventBus child = new EventBus(root);
+            EventBus grandchild = new EventBus(child);
+            assert grandchild.getParent() == child;
+            assert child.getParent() == root;
+            assert root.getParent() == null;
+
+            List rootEvents = recordEvents(root);
+            List childEvents = recordEvents(child);
+            List grandchildEvents = recordEvents(grandchild);
+
+            grandchild.publishEvent(testEvent, "a");
+            child.publishEvent(testEvent, "b");
+            root.publishEvent(testEvent, "c");
+
+            assert grandchildEvents == ["a"];
+            assert childEvents == ["a", "b"];
+            assert rootEvents == ["a", "b", "c"];
+        }
+
+        public void testQueuedChildForwardedOnce() {
+            EventBus root = new EventBus();
+            EventBus child = new EventBus(root);
+            List rootEvents = recordEvents(root);
+            List childEvents = recordEvents(child);
+
+            // The parent gets the event right away, delivering the
+            // child's queue later must not send it to the parent again.
+            child.bindDelivery(testEvent, null);
+            child.publishEvent(testEvent, "a");
+            assert childEvents == [];
+            assert rootEvents == ["a"];
+
+            assert child.deliverQueued() == 1;
+            assert childEvents == ["a"];
+            assert rootEvents == ["a"];
+        }
+
+        public void testChildErrorForwardedOnce() {
+            EventBus root = new EventBus();
+            EventBus child = new EventBus(root);
+            List rootErrors = Collections.synchronizedList([]);
+            List childErrors = Collections.synchronizedList([]);
+            root.addEventListener(ErrorEvent.dispatchError, { type, event -> rootErrors.add(event) } as EventListener);
+            child.addEventListener(ErrorEvent.dispatchError, { type, event -> childErrors.add(event) } as EventListener);
+            child.addEventListener(testEvent, { type, event -> throw new RuntimeException("Expected test error") } as EventListener);
+            List rootEvents = recordEvents(root);
+
+            child.publishEvent(testEvent, "a");
+
+            assert rootEvents == ["a"];
+            assert childErrors.size() == 1;
+            assert rootErrors == childErrors;
+        }
+
+        public void testListenersIndependent() {
+            EventBus root = new EventBus();
+            EventBus child = new EventBus(root);
+            CountingListener listener = new CountingListener();
+            child.addEventListener(testEvent, listener);
+
+            // Only the child's own listeners are removed from the child
+            root.removeEventListener(testEvent, listener);
+            child.publishEvent(testEvent, "a");
+            assert listener.count == 1;
+
+            child.removeEventListener(testEvent, listener);
+            child.publishEvent(testEvent, "b");
+            assert listener.count == 1;
+        }
+    }
+
+    static class MetricsTest extends GroovyTestCase {
+        public void testTypeAndListenerCounts() {
+            EventBus bus = new EventBus();
+            bus.setMetricsEnabled(true);
+            CountingListener counting = new CountingListener();
+            int calls = 0;
+            EventListener failing = { type, event ->
+                    if( calls++ % 2 == 1 ) {
+                        throw new RuntimeException("Expected test error");
+                    }
+                } as EventListener;
+            bus.addEventListener(testEvent, counting);
+            bus.addEventListener(testEvent, failing);
+
+            for( int i = 0; i < 4; i++ ) {
+                bus.publishEvent(testEvent, i);
+            }
+            for( int i = 0; i < 3; i++ ) {
+                bus.publishEvent(unheardEvent, i);
+            }
+
+            EventMetrics metrics = bus.getMetrics(testEvent);
+            assert metrics.getType() == testEvent;
+            assert metrics.getPublishCount() == 4;
+            assert metrics.getUndeliveredCount() == 0;
+            assert metrics.getErrorCount() == 2;
+            assert metrics.getDeliveryTime().getCount() == 4;
+            assert metrics.getListeners().size() == 2;
+
+            EventMetrics.ListenerMetrics first = metrics.getListeners()[0];
+            assert first.getListener() == counting;
+            assert first.getCallCount() == 4;
+            assert first.getErrorCount() == 0;
+            assert first.getTime().getCount() == 4;
+
+            EventMetrics.ListenerMetrics second = metrics.getListeners()[1];
+            assert second.getListener() == failing;
+            assert second.getCallCount() == 4;
+            assert second.getErrorCount() == 2;
+
+            EventMetrics unheard = bus.getMetrics(unheardEvent);
+            assert unheard.getPublishCount() == 3;
+            assert unheard.getUndeliveredCount() == 3;
+            assert unheard.getListeners().isEmpty();
+
+            // The errors were published as events, too
+            assert bus.getMetrics(ErrorEvent.dispatchError).getPublishCount() == 2;
+
+            // The first entry is for the global listeners
+            List<EventMetrics> all = bus.getMetrics();
+            assert all[0].getType() == null;
+            assert all.find { it.getType() == testEvent }.getPublishCount() == 4;
+        }
+
+        public void testSnapshotAndReset() {
+            EventBus bus = new EventBus();
+            bus.setMetricsEnabled(true);
+            bus.addEventListener(testEvent, new CountingListener());
+            bus.publishEvent(testEvent, "a");
+
+            EventMetrics snapshot = bus.getMetrics(testEvent);
+            bus.publishEvent(testEvent, "b");
+
+            // Snapshots don't change once taken
+            assert snapshot.getPublishCount() == 1;
+            assert snapshot.getListeners()[0].getCallCount() == 1;
+            assert bus.getMetrics(testEvent).getPublishCount() == 2;
+            assert bus.getMetrics(testEvent).getListeners()[0].getCallCount() == 2;
+            shouldFail(UnsupportedOperationException) {
+                snapshot.getListeners().clear();
+            }
+
+            bus.resetMetrics();
+            EventMetrics reset = bus.getMetrics(testEvent);
+            assert reset.getPublishCount() == 0;
+            assert reset.getDeliveryTime().getCount() == 0;
+            assert reset.getListeners()[0].getCallCount() == 0;
+
+            // Nothing is collected while disabled
+            bus.setMetricsEnabled(false);
+            bus.publishEvent(testEvent, "c");
+            assert bus.getMetrics(testEvent).getPublishCount() == 0;
+            assert bus.getMetrics(testEvent).getListeners()[0].getCallCount() == 0;
+        }
+
+        public void testPerBus() {
+            EventBus root = new EventBus();
+            EventBus child = new EventBus(root);
+            root.setMetricsEnabled(true);
+            child.setMetricsEnabled(true);
+            root.addEventListener(testEvent, new CountingListener());
+
+            child.publishEvent(testEvent, "a");
+            root.publishEvent(testEvent, "b");
+
+            // Each bus counts what it saw
+            assert child.getMetrics(testEvent).getPublishCount() == 1;
+            assert child.getMetrics(testEvent).getUndeliveredCount() == 1;
+            assert root.getMetrics(testEvent).getPublishCount() == 2;
+            assert root.getMetrics(testEvent).getUndeliveredCount() == 0;
+            assert root.getMetrics(testEvent).getListeners()[0].getCallCount() == 2;
+        }
+    }
+
+    static void awaitCount( List received, int count ) {
+        long end = System.currentTimeMillis() + 10000;
+        while( received.size() < count ) {
+            assert System.currentTimeMillis() < end : "Only received:" + received;
+            Thread.sleep(1);
+        }
+    }
+
+    static void waitForState( Thread thread, Thread.State state ) {
+        long end = System.currentTimeMillis() + 10000;
+        while( thread.getState() != state ) {
+            assert System.currentTimeMillis() < end : "Thread state:" + thread.getState();
+            Thread.sleep(1);
+        }
+    }
+
+    static void runWithTimeout( Closure task ) {
+        Thread thread = Thread.start(task);
+        thread.join(10000);
+        if( thread.isAlive() ) {
+            thread.interrupt();
+            throw new Error("Timed out in thread:" + thread);
+        }
+    }
+
+    static List recordEvents( EventBus bus ) {
+        List result = Collections.synchronizedList([]);
+        bus.addEventListener(testEvent, { type, event -> result.add(event) } as EventListener);
+        return result;
+    }
+
+    @CompileStatic
+    static class CountingListener implements EventListener<Object> {
+        int count;
+
+        public void newEvent( EventType<Object> type, Object event ) {
+            count++;
+        }
+    }
+
+    @CompileStatic
+    static class MethodListener {
+        int count;
+
+        public void onTest( Object event ) {
+            count++;
+        }
+    }
+}
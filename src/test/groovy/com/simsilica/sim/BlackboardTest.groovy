@@ -0,0 +1,316 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import groovy.transform.CompileStatic;
+
+import com.simsilica.lemur.core.VersionedReference;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class BlackboardTests {
+
+    static class WatchTest extends GroovyTestCase {
+        public void testWatchOnlySeesOwnKey() {
+            Blackboard bb = new Blackboard();
+            def seen = [:].withDefault { [] };
+            for( int i = 0; i < 100; i++ ) {
+                String id = "key" + i;
+                bb.watch(id, Integer.class, { seen[id] << it } as Consumer);
+            }
+            bb.update("key5", Integer.class, 5);
+            bb.update("key7", Integer.class, 7);
+            bb.update("key5", Integer.class, 6);
+
+            assert seen.keySet() == ["key5", "key7"] as Set;
+            assert seen["key5"] == [5, 6];
+            assert seen["key7"] == [7];
+        }
+
+        public void testWatchSeesExistingValue() {
+            Blackboard bb = new Blackboard();
+            bb.set("name", "test");
+            def seen = [];
+            bb.watch("name", { seen << it } as Consumer);
+            assert seen == ["test"];
+        }
+
+        public void testUnwatch() {
+            Blackboard bb = new Blackboard();
+            BlackboardKey<Integer> key = BlackboardKey.create("count", Integer.class);
+            def seen = [];
+            Consumer<Integer> consumer = bb.watch(key, { seen << it } as Consumer);
+            bb.update(key, 1);
+            bb.unwatch(key, consumer);
+            bb.update(key, 2);
+            assert seen == [1];
+        }
+
+        public void testOnInitializeCalledOnce() {
+            Blackboard bb = new Blackboard();
+            def seen = [];
+            bb.onInitialize("value", Integer.class, { seen << it } as Consumer);
+            bb.update("value", Integer.class, 1);
+            bb.update("value", Integer.class, 2);
+            assert seen == [1];
+        }
+
+        public void testGenericListenerSeesAllKeys() {
+            Blackboard bb = new Blackboard();
+            def seen = [];
+            bb.addBlackboardListener({ id, type, value -> seen << id } as BlackboardListener);
+            bb.update("a", 1);
+            bb.update("b", 2);
+            assert seen == ["a", "b"];
+        }
+
+        public void testNotifiedInOrderAdded() {
+            Blackboard bb = new Blackboard();
+            def seen = [];
+            bb.addBlackboardListener({ id, type, value -> seen << "listener1" } as BlackboardListener);
+            bb.watch("a", Integer.class, { seen << "watch1" } as Consumer);
+            bb.addBlackboardListener({ id, type, value -> seen << "listener2" } as BlackboardListener);
+            bb.onInitialize("a", Integer.class, { seen << "init" } as Consumer);
+            bb.watch("a", Integer.class, { seen << "watch2" } as Consumer);
+            bb.update("a", Integer.class, 1);
+            assert seen == ["listener1", "watch1", "listener2", "init", "watch2"];
+        }
+    }
+
+    /**
+     *  Updates one key while many other keys are watched.  Only the updated
+     *  key's watchers should be notified.  The keys are looked up instead of
+     *  created so that they aren't interned for the rest of the tests.
+     */
+    @CompileStatic
+    static class WatchScalingTest extends GroovyTestCase {
+        public void testOnlyWatchedKeyNotified() {
+            Blackboard bb = new Blackboard();
+            CountingConsumer[] others = new CountingConsumer[1000];
+            for( int i = 0; i < others.length; i++ ) {
+                others[i] = new CountingConsumer();
+                bb.watch(BlackboardKey.lookup("other" + i, Integer.class), others[i]);
+            }
+            BlackboardKey<Integer> key = BlackboardKey.lookup("value", Integer.class);
+            CountingConsumer watcher = new CountingConsumer();
+            CountingConsumer second = new CountingConsumer();
+            bb.watch(key, watcher);
+            bb.watch(key, second);
+
+            for( int i = 0; i < 100; i++ ) {
+                bb.update(key, i);
+            }
+            assert watcher.count == 100;
+            assert second.count == 100;
+            for( CountingConsumer other : others ) {
+                assert other.count == 0;
+            }
+
+            // The other keys' watchers still work
+            bb.update(BlackboardKey.lookup("other5", Integer.class), 5);
+            assert others[5].count == 1;
+            assert watcher.count == 100;
+        }
+    }
+
+    @CompileStatic
+    static class CountingConsumer implements Consumer<Integer> {
+        int count;
+
+        public void accept( Integer value ) {
+            count++;
+        }
+    }
+
+    static class KeyTest extends GroovyTestCase {
+        public void testKeysShareValues() {
+            Blackboard bb = new Blackboard();
+            BlackboardKey<Integer> key = BlackboardKey.create("count", Integer.class);
+            bb.set("count", Integer.class, 1);
+            assert bb.get(key) == 1;
+            bb.update(key, 2);
+            assert bb.get("count", Integer.class) == 2;
+        }
+
+        public void testTransientIdsReleased() {
+            Blackboard bb = new Blackboard();
+            def refs = [];
+            for( int i = 0; i < 100; i++ ) {
+                String id = "generated-" + i;
+                bb.update(id, i);
+                assert bb.get(new String(id)) == i;
+                bb.update(id, null);
+                refs << new WeakReference(id);
+            }
+
+            // Nothing should be holding onto the ids anymore, including
+            // any interned keys.
+            awaitCollected(refs);
+        }
+
+        public void testWatchedIdKept() {
+            Blackboard bb = new Blackboard();
+            def seen = [];
+            bb.watch("a", Integer.class, { seen << it } as Consumer);
+            VersionedReference<Integer> ref = bb.createReference("b", Integer.class);
+            bb.update("a", Integer.class, 1);
+            bb.update("b", Integer.class, 1);
+            bb.update("a", Integer.class, null);
+            bb.update("b", Integer.class, null);
+            assert ref.update();
+
+            bb.update("a", Integer.class, 2);
+            bb.update("b", Integer.class, 2);
+            assert seen == [1, null, 2];
+            assert ref.update();
+            assert ref.get() == 2;
+        }
+
+        public void testUnwatchedIdReleased() {
+            Blackboard bb = new Blackboard();
+            String id = "generated-" + System.nanoTime();
+            Consumer consumer = bb.watch(id, { } as Consumer);
+            bb.unwatch(id, consumer);
+            def refs = [new WeakReference(id)];
+            id = null;
+            awaitCollected(refs);
+        }
+
+        private static void awaitCollected( List<WeakReference> refs ) {
+            for( int i = 0; i < 50 && refs.any { it.get() != null }; i++ ) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assert refs.every { it.get() == null };
+        }
+    }
+
+    static class ReferenceTest extends GroovyTestCase {
+        public void testReferenceSeesChanges() {
+            Blackboard bb = new Blackboard();
+            VersionedReference<Integer> ref = bb.createReference("count", Integer.class);
+            assert !ref.update();
+            assert ref.get() == null;
+
+            bb.update("count", Integer.class, 1);
+            assert ref.update();
+            assert ref.get() == 1;
+            assert !ref.update();
+
+            // Even the same value is a change
+            bb.update("count", Integer.class, 1);
+            bb.update("count", Integer.class, 2);
+            assert ref.update();
+            assert ref.get() == 2;
+        }
+
+        public void testReferenceToExistingValue() {
+            Blackboard bb = new Blackboard();
+            bb.set(String.class, "test");
+            VersionedReference<String> ref = bb.createReference(String.class);
+            assert ref.get() == "test";
+            assert !ref.needsUpdate();
+        }
+    }
+
+    static class DeferredTest extends GroovyTestCase {
+        public void testChangesCoalesced() {
+            Blackboard bb = new Blackboard();
+            bb.setDeferredNotifications(true);
+            def seen = [];
+            bb.watch("a", Integer.class, { seen << "a=" + it } as Consumer);
+            bb.watch("b", Integer.class, { seen << "b=" + it } as Consumer);
+            bb.update("a", Integer.class, 1);
+            bb.update("b", Integer.class, 1);
+            bb.update("a", Integer.class, 2);
+            bb.update("a", Integer.class, 3);
+            assert seen.isEmpty();
+            assert bb.hasPendingNotifications();
+
+            bb.deliverPendingNotifications();
+            assert seen == ["a=3", "b=1"];
+            assert !bb.hasPendingNotifications();
+
+            // Values are still visible right away
+            bb.update("b", Integer.class, 5);
+            assert bb.get("b", Integer.class) == 5;
+            bb.deliverPendingNotifications();
+            assert seen == ["a=3", "b=1", "b=5"];
+        }
+
+        public void testDeliveredOnExecutor() {
+            Blackboard bb = new Blackboard();
+            def tasks = [];
+            bb.setDeferredNotifications(true);
+            bb.setNotificationExecutor({ Runnable r -> tasks << r } as Executor);
+            def seen = [];
+            bb.watch("a", Integer.class, { seen << it } as Consumer);
+            for( int i = 0; i < 10; i++ ) {
+                bb.update("a", Integer.class, i);
+            }
+            assert tasks.size() == 1;
+            tasks[0].run();
+            assert seen == [9];
+        }
+
+        public void testDeliveredAtEndOfFrame() {
+            GameSystemManager manager = new GameSystemManager();
+            Blackboard bb = manager.get(Blackboard.class);
+            bb.setDeferredNotifications(true);
+            def seen = [];
+            bb.watch("a", Integer.class, { seen << it } as Consumer);
+            manager.initialize();
+            manager.start();
+
+            bb.update("a", Integer.class, 1);
+            bb.update("a", Integer.class, 2);
+            assert seen.isEmpty();
+            manager.update();
+            assert seen == [2];
+
+            manager.stop();
+            manager.terminate();
+        }
+    }
+}
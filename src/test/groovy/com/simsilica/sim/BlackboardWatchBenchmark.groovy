@@ -0,0 +1,86 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.function.Consumer;
+
+import groovy.transform.CompileStatic;
+
+/**
+ *  Measures the time to update one blackboard key while 1, 10, 100, and
+ *  1000 other keys are watched, reporting the best of 10 runs of 200k
+ *  updates each.  This is not a unit test because wall clock timings
+ *  aren't reliable enough to assert on.  Run it with main().
+ *
+ *  @author    Paul Speed
+ */
+@CompileStatic
+public class BlackboardWatchBenchmark {
+
+    public static void main( String... args ) {
+        for( int watched : [1, 10, 100, 1000] ) {
+            System.out.println(String.format("%5d watched keys: %.1f ns per update",
+                                             watched, nanosPerUpdate(watched)));
+        }
+    }
+
+    private static double nanosPerUpdate( int watchedKeys ) {
+        Blackboard bb = new Blackboard();
+        for( int i = 0; i < watchedKeys; i++ ) {
+            bb.watch(BlackboardKey.lookup("other" + i, Integer.class), new NoOpConsumer());
+        }
+        BlackboardKey<Integer> key = BlackboardKey.lookup("value", Integer.class);
+        bb.watch(key, new NoOpConsumer());
+
+        Integer value = 1;
+        int updates = 200000;
+        long best = Long.MAX_VALUE;
+        for( int run = 0; run < 10; run++ ) {
+            long start = System.nanoTime();
+            for( int i = 0; i < updates; i++ ) {
+                bb.update(key, value);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / (double)updates;
+    }
+
+    private static class NoOpConsumer implements Consumer<Integer> {
+        public void accept( Integer value ) {
+        }
+    }
+}
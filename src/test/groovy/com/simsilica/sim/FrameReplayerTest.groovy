@@ -0,0 +1,185 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.concurrent.*;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class FrameReplayerTests {
+
+    static class RoundTripTest extends GroovyTestCase {
+        public void testRecordAndReplay() {
+            // Record a session where a system enqueues a task every
+            // other frame and some tasks come from 'outside'.
+            Counter recorded = new Counter();
+            GameSystemManager systems = manager(recorded);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            FrameRecorder recorder = new FrameRecorder(bytes);
+            systems.setFrameRecorder(recorder);
+            systems.initialize();
+            systems.start();
+            long[] deltas = [1000, 2000, 1500, 1000, 3000, 1000, 1000, 2500, 1000, 1000];
+            deltas.eachWithIndex { delta, i ->
+                if( i % 3 == 0 ) {
+                    systems.get(TaskDispatcher.class).execute(new RecordFrameTask(recorded));
+                }
+                systems.step(delta);
+            }
+            systems.setFrameRecorder(null);
+            recorder.close();
+            assert recorder.getFrameCount() == deltas.length;
+            assert recorder.getFailure() == null;
+
+            // Replay it against a fresh copy of the same systems
+            Counter replayed = new Counter();
+            GameSystemManager replaySystems = manager(replayed);
+            FrameReplayer replayer = new FrameReplayer(new ByteArrayInputStream(bytes.toByteArray()));
+            replayer.setTaskFactory({ String type ->
+                    assert type == RecordFrameTask.class.getName();
+                    return new RecordFrameTask(replayed);
+                } as FrameReplayer.TaskFactory);
+            replayer.replay(replaySystems);
+
+            assert replayer.getFrameCount() == deltas.length;
+            assert replayer.getSimulatedNanos() == deltas.sum();
+            assert replayer.getTaskCount() == recorder.getTaskCount();
+            assert replaySystems.getStepTime().getTime() == systems.getStepTime().getTime();
+
+            // The tasks the system enqueued itself during replay are already
+            // in the recording so they must not run again.
+            TaskDispatcher dispatcher = replaySystems.get(TaskDispatcher.class);
+            assert dispatcher.getSuppressedCount() > 0;
+            assert replayed.frames == recorded.frames;
+            assert replayed.runs == recorded.runs;
+
+            // Back to normal after the replay
+            assert !dispatcher.isReplaying();
+        }
+    }
+
+    static class RecorderFailureTest extends GroovyTestCase {
+        public void testRecordingStopsOnError() {
+            FailingStream stream = new FailingStream();
+            FrameRecorder recorder = new FrameRecorder(stream);
+            GameSystemManager systems = manager(new Counter());
+            systems.setFrameRecorder(recorder);
+            systems.initialize();
+            systems.start();
+
+            // Enough frames to fill the recorder's buffer many times over
+            stream.fail = true;
+            for( int i = 0; i < 100000; i++ ) {
+                systems.step(1000);
+            }
+            assert recorder.getFailure() != null;
+            assert systems.getStepTime().getFrame() >= 100000;
+
+            // Only tried to write until the first failure
+            assert stream.attempts == 1;
+            shouldFail(IOException) {
+                recorder.close();
+            }
+        }
+    }
+
+    static GameSystemManager manager( Counter counter ) {
+        GameSystemManager result = new GameSystemManager();
+        result.addSystem(new EnqueuingSystem(counter));
+        return result;
+    }
+
+    static class Counter {
+        int frames;
+        List<Long> runs = [];
+    }
+
+    /**
+     *  Records the frame it ran in.
+     */
+    static class RecordFrameTask implements Runnable {
+        Counter counter;
+
+        RecordFrameTask( Counter counter ) {
+            this.counter = counter;
+        }
+
+        public void run() {
+            counter.runs << counter.frames;
+        }
+    }
+
+    static class EnqueuingSystem extends AbstractGameSystem {
+        Counter counter;
+
+        EnqueuingSystem( Counter counter ) {
+            this.counter = counter;
+        }
+
+        protected void initialize() {
+        }
+
+        public void update( SimTime time ) {
+            counter.frames++;
+            if( counter.frames % 2 == 0 ) {
+                getManager().get(TaskDispatcher.class).execute(new RecordFrameTask(counter));
+            }
+        }
+
+        protected void terminate() {
+        }
+    }
+
+    static class FailingStream extends OutputStream {
+        boolean fail;
+        int attempts;
+
+        public void write( int b ) {
+            write([b] as byte[], 0, 1);
+        }
+
+        public void write( byte[] b, int off, int len ) {
+            if( fail ) {
+                attempts++;
+                throw new IOException("Test failure");
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.concurrent.*;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class GameLoopHostTests {
+
+    static final long RATE = TimeUnit.MILLISECONDS.toNanos(1);
+
+    static class MultiplexTest extends GameLoopHostTestCase {
+        public void testManyLoopsOnFewThreads() {
+            GameLoopHost host = new GameLoopHost(2);
+            def systems = [];
+            def loops = [];
+            for( int i = 0; i < 10; i++ ) {
+                CountingSystem system = new CountingSystem();
+                systems.add(system);
+                loops.add(host.host(manager(system), RATE));
+            }
+            host.start();
+            try {
+                loops.each { it.waitForInitialized() }
+                systems.each { awaitUpdates(it, 10) }
+
+                // Only the host's workers ever update the systems
+                def threads = systems.collectMany { it.threads } as Set;
+                assert threads.size() <= 2;
+                assert !threads.contains(Thread.currentThread());
+            } finally {
+                host.shutdown();
+            }
+            assert host.getHostedCount() == 0;
+            systems.each { assert it.terminated }
+        }
+    }
+
+    static class StopTest extends GameLoopHostTestCase {
+        public void testStopOneLoop() {
+            GameLoopHost host = new GameLoopHost(1);
+            CountingSystem stopped = new CountingSystem();
+            CountingSystem running = new CountingSystem();
+            def loop = host.host(manager(stopped), RATE);
+            host.host(manager(running), RATE);
+            host.start();
+            try {
+                awaitUpdates(stopped, 5);
+                loop.stop(true);
+                assert !loop.isRunning();
+                assert stopped.terminated;
+                assert host.getHostedCount() == 1;
+
+                int count = stopped.updates;
+                awaitUpdates(running, running.updates + 5);
+                assert stopped.updates == count;
+            } finally {
+                host.shutdown();
+            }
+            assert running.terminated;
+        }
+
+        public void testStopBeforeStart() {
+            GameLoopHost host = new GameLoopHost(1);
+            CountingSystem system = new CountingSystem();
+            def loop = host.host(manager(system), RATE);
+            shouldFail(IllegalStateException) {
+                loop.stop(true);
+            }
+            host.start();
+            try {
+                awaitUpdates(system, 5);
+                loop.stop(true);
+                assert system.terminated;
+            } finally {
+                host.shutdown();
+            }
+        }
+    }
+
+    static class FailureTest extends GameLoopHostTestCase {
+        public void testUpdateFailureStopsOnlyThatLoop() {
+            GameLoopHost host = new GameLoopHost(1);
+            // GameSystemManager already handles errors from the systems
+            // themselves so it's the manager's update() that fails here.
+            CountingSystem failing = new CountingSystem();
+            FailingManager failingManager = new FailingManager(failAt:5);
+            failingManager.addSystem(failing);
+            CountingSystem running = new CountingSystem();
+            def failed = host.host(failingManager, RATE);
+            def other = host.host(manager(running), RATE);
+            host.start();
+            try {
+                awaitUpdates(failing, 5);
+
+                // Returns once the failed loop has been cleaned up
+                runWithTimeout { failed.stop(true) }
+                assert !failed.isRunning();
+                assert failed.getFailure() instanceof IllegalStateException;
+                assert failing.terminated;
+                assert failing.updates == 5;
+
+                // The shared worker is still running the other loop
+                awaitUpdates(running, running.updates + 5);
+                assert other.isRunning();
+                assert other.getFailure() == null;
+            } finally {
+                runWithTimeout { host.shutdown() }
+            }
+        }
+
+        public void testStartupFailure() {
+            GameLoopHost host = new GameLoopHost(1);
+            def loop = host.host(manager(new CountingSystem(failInit:true)), RATE);
+            host.start();
+            try {
+                shouldFail(RuntimeException) {
+                    loop.waitForInitialized();
+                }
+                assert !loop.isRunning();
+                assert loop.getFailure() != null;
+                runWithTimeout { loop.stop(true) }
+            } finally {
+                host.shutdown();
+            }
+        }
+    }
+
+    static class GameLoopHostTestCase extends GroovyTestCase {
+        static GameSystemManager manager( GameSystem system ) {
+            GameSystemManager result = new GameSystemManager();
+            result.addSystem(system);
+            return result;
+        }
+
+        static void awaitUpdates( CountingSystem system, int count ) {
+            long end = System.currentTimeMillis() + 10000;
+            while( system.updates < count ) {
+                assert System.currentTimeMillis() < end : "Only " + system.updates + " updates";
+                Thread.sleep(1);
+            }
+        }
+
+        static void runWithTimeout( Closure task ) {
+            Thread thread = Thread.start(task);
+            thread.join(10000);
+            if( thread.isAlive() ) {
+                thread.interrupt();
+                throw new Error("Timed out in thread:" + thread);
+            }
+        }
+    }
+
+    static class FailingManager extends GameSystemManager {
+        int failAt;
+        int calls;
+
+        public void update() {
+            if( calls++ == failAt ) {
+                throw new IllegalStateException("Test update failure");
+            }
+            super.update();
+        }
+    }
+
+    static class CountingSystem extends AbstractGameSystem {
+        volatile int updates;
+        volatile boolean terminated;
+        boolean failInit;
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        protected void initialize() {
+            if( failInit ) {
+                throw new IllegalStateException("Test initialize failure");
+            }
+        }
+
+        public void update( SimTime time ) {
+            threads.add(Thread.currentThread());
+            updates++;
+        }
+
+        protected void terminate() {
+            terminated = true;
+        }
+    }
+}
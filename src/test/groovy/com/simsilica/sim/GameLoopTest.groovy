@@ -0,0 +1,138 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.concurrent.*;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class GameLoopTests {
+
+    static final long RATE = TimeUnit.MILLISECONDS.toNanos(1);
+
+    static class FixedStepTest extends GroovyTestCase {
+        public void testExactSteps() {
+            RecordingSystem system = new RecordingSystem();
+            GameLoop loop = fixedLoop(system);
+            loop.start(true);
+            try {
+                system.awaitFrames(50);
+            } finally {
+                loop.stop();
+            }
+            def times = new ArrayList(system.times);
+            for( int i = 1; i < times.size(); i++ ) {
+                assert times[i] - times[i - 1] == RATE;
+            }
+            double tpf = RATE * new SimTime().getTimeScale();
+            assert system.tpfs.every { it == tpf };
+        }
+
+        public void testCatchUpIsBounded() {
+            // Stalls for many steps worth of time once
+            RecordingSystem system = new RecordingSystem(stallFrame:10, stallMillis:50);
+            GameLoop loop = fixedLoop(system);
+            loop.setMaxCatchUpSteps(3);
+            loop.start(true);
+            try {
+                system.awaitFrames(30);
+            } finally {
+                loop.stop();
+            }
+
+            // Most of the stall is dropped instead of caught up
+            assert loop.getDroppedStepCount() >= 25;
+            assert loop.getDroppedTimeNanos() == loop.getDroppedStepCount() * RATE;
+
+            // Each pass runs at most the max catch up steps
+            LoopHistory history = loop.getLoopHistory();
+            def samples = history.getSamples(history.getCapacity());
+            long missed = 0;
+            for( int i = 1; i < samples.size(); i++ ) {
+                assert samples[i].frame - samples[i - 1].frame <= 3;
+            }
+            samples.each { missed += it.missedFrames }
+            assert missed == loop.getDroppedStepCount();
+
+            // The game time still only moved in exact steps
+            def times = new ArrayList(system.times);
+            for( int i = 1; i < times.size(); i++ ) {
+                assert times[i] - times[i - 1] == RATE;
+            }
+        }
+
+        private static GameLoop fixedLoop( GameSystem system ) {
+            GameSystemManager systems = new GameSystemManager();
+            systems.addSystem(system);
+            GameLoop loop = new GameLoop(systems, RATE);
+            loop.setStepMode(GameLoop.StepMode.Fixed);
+            return loop;
+        }
+    }
+
+    static class RecordingSystem extends AbstractGameSystem {
+        List<Long> times = new CopyOnWriteArrayList<>();
+        List<Double> tpfs = new CopyOnWriteArrayList<>();
+        long stallFrame = -1;
+        long stallMillis;
+
+        protected void initialize() {
+        }
+
+        public void update( SimTime time ) {
+            times.add(time.getTime());
+            tpfs.add(time.getTpf());
+            if( times.size() == stallFrame ) {
+                Thread.sleep(stallMillis);
+            }
+        }
+
+        protected void terminate() {
+        }
+
+        void awaitFrames( int count ) {
+            long end = System.currentTimeMillis() + 10000;
+            while( times.size() < count ) {
+                assert System.currentTimeMillis() < end : "Only " + times.size() + " frames";
+                Thread.sleep(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import groovy.transform.CompileStatic;
+
+import org.slf4j.MDC;
+
+import com.simsilica.test.Allocations;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class GameSystemManagerTests {
+
+    @CompileStatic
+    static class AllocationTest extends GroovyTestCase {
+        public void testNoOpFrameAllocation() {
+            // The default configuration should not allocate
+            GameSystemManager manager = new GameSystemManager();
+            for( int i = 0; i < 20; i++ ) {
+                manager.addSystem(new NoOpSystem());
+            }
+            manager.initialize();
+            manager.start();
+
+            // Warm up so that any lazy setup is out of the way
+            for( int i = 0; i < 10000; i++ ) {
+                manager.update();
+            }
+
+            int frames = 10000;
+            long allocated = measureAllocation(manager, frames);
+            assert allocated < frames : "Allocated " + allocated + " bytes over " + frames + " frames";
+
+            manager.stop();
+            manager.terminate();
+        }
+
+        private static long measureAllocation( GameSystemManager manager, int frames ) {
+            long start = Allocations.threadAllocatedBytes();
+            for( int i = 0; i < frames; i++ ) {
+                manager.update();
+            }
+            return Allocations.threadAllocatedBytes() - start;
+        }
+    }
+
+    static class FrameMdcTest extends GroovyTestCase {
+        public void testFrameMdc() {
+            GameSystemManager manager = new GameSystemManager();
+            assert !manager.isFrameMdcEnabled();
+            def seen = [];
+            manager.addSystem(new AbstractGameSystem() {
+                    protected void initialize() {
+                    }
+
+                    public void update( SimTime time ) {
+                        seen << [MDC.get("frame"), time.getFrame()];
+                    }
+
+                    protected void terminate() {
+                    }
+                });
+            manager.initialize();
+            manager.start();
+
+            manager.update();
+            manager.setFrameMdcEnabled(true);
+            manager.update();
+            manager.update();
+            assert seen.size() == 3;
+            assert seen[0][0] == null;
+            assert seen[1][0] == String.format("%06d", seen[1][1]);
+            assert seen[2][0] == String.format("%06d", seen[2][1]);
+            assert MDC.get("frame") == null;
+
+            manager.stop();
+            manager.terminate();
+        }
+    }
+
+    private static class NoOpSystem extends AbstractGameSystem {
+        protected void initialize() {
+        }
+
+        protected void terminate() {
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.concurrent.*;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class ParallelUpdateStrategyTests {
+
+    static class PlanTest extends GroovyTestCase {
+        public void testIndependentSystems() {
+            def a = new DepSystem("a", [], ["x"]);
+            def b = new DepSystem("b", [], ["y"]);
+            def c = new DepSystem("c", ["z"], []);
+            assert stages(a, b, c) == [[a, b, c]];
+        }
+
+        public void testSharedReads() {
+            def a = new DepSystem("a", ["x"], []);
+            def b = new DepSystem("b", ["x"], []);
+            assert stages(a, b) == [[a, b]];
+        }
+
+        public void testConflicts() {
+            // Write/write, write/read and read/write each force a new stage
+            def writer = new DepSystem("writer", [], ["x"]);
+            def reader = new DepSystem("reader", ["x"], []);
+            def rewriter = new DepSystem("rewriter", [], ["x"]);
+            assert stages(writer, reader, rewriter) == [[writer], [reader], [rewriter]];
+        }
+
+        public void testEarliestStage() {
+            // A later system that only conflicts with the first stage still
+            // runs alongside the second.
+            def a = new DepSystem("a", [], ["x"]);
+            def b = new DepSystem("b", ["x"], ["y"]);
+            def c = new DepSystem("c", ["x"], []);
+            def d = new DepSystem("d", [], ["z"]);
+            assert stages(a, b, c, d) == [[a, d], [b, c]];
+        }
+
+        public void testCycleUsesManagerOrder() {
+            // Each writes what the other reads so neither can go first on
+            // its own.  The manager order breaks the cycle.
+            def a = new DepSystem("a", ["y"], ["x"]);
+            def b = new DepSystem("b", ["x"], ["y"]);
+            assert stages(a, b) == [[a], [b]];
+            assert stages(b, a) == [[b], [a]];
+        }
+
+        public void testExclusiveSystems() {
+            // Systems without dependencies get their own stage and nothing
+            // after them can move in front of them.
+            def a = new DepSystem("a", [], ["x"]);
+            def exclusive = new CountingSystem("exclusive");
+            def b = new DepSystem("b", [], ["y"]);
+            def c = new DepSystem("c", [], ["z"]);
+            assert stages(a, exclusive, b, c) == [[a], [exclusive], [b, c]];
+        }
+
+        public void testPlanRebuilt() {
+            ParallelUpdateStrategy strategy = new ParallelUpdateStrategy(1);
+            try {
+                assert strategy.getStages().isEmpty();
+                def a = new DepSystem("a", [], ["x"]);
+                def b = new DepSystem("b", ["x"], []);
+                strategy.update([a, b] as GameSystem[], new SimTime(), null);
+                assert strategy.getStages() == [[a], [b]];
+
+                // A new array means the systems changed
+                def c = new DepSystem("c", [], ["y"]);
+                strategy.update([a, b, c] as GameSystem[], new SimTime(), null);
+                assert strategy.getStages() == [[a, c], [b]];
+            } finally {
+                strategy.getPool().shutdownNow();
+            }
+        }
+    }
+
+    static class UpdateTest extends GroovyTestCase {
+        public void testStagesRunInParallel() {
+            ParallelUpdateStrategy strategy = new ParallelUpdateStrategy(2);
+            try {
+                // Each waits for the other so they can only both finish if
+                // they are updated at the same time.
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                def a = new DepSystem("a", [], ["x"]);
+                def b = new DepSystem("b", [], ["y"]);
+                [a, b].each { sys ->
+                    sys.onUpdate = { barrier.await(10, TimeUnit.SECONDS) };
+                }
+                SystemTiming timing = new SystemTiming();
+                strategy.update([a, b] as GameSystem[], new SimTime(), timing);
+                assert a.updates == 1;
+                assert b.updates == 1;
+
+                // Timing is collected from the pool threads, too
+                assert timing.getStats(a) != null;
+                assert timing.getStats(b) != null;
+                assert timing.getAllTimingInfo().keySet() as Set == [a, b] as Set;
+            } finally {
+                strategy.getPool().shutdownNow();
+            }
+        }
+
+        public void testStageOrder() {
+            ParallelUpdateStrategy strategy = new ParallelUpdateStrategy(4);
+            try {
+                List<String> events = Collections.synchronizedList([]);
+                def writer = new DepSystem("writer", [], ["x"]);
+                def readers = (0..<4).collect { new DepSystem("reader" + it, ["x"], []) };
+                def last = new DepSystem("last", [], ["x"]);
+                writer.onUpdate = { events << "writer" };
+                readers.each { sys -> sys.onUpdate = { Thread.sleep(5); events << "reader" } };
+                last.onUpdate = { events << "last" };
+
+                GameSystem[] systems = ([writer] + readers + [last]) as GameSystem[];
+                for( int frame = 0; frame < 10; frame++ ) {
+                    events.clear();
+                    strategy.update(systems, new SimTime(), null);
+                    assert events == ["writer", "reader", "reader", "reader", "reader", "last"];
+                }
+            } finally {
+                strategy.getPool().shutdownNow();
+            }
+        }
+
+        public void testWithManager() {
+            ParallelUpdateStrategy strategy = new ParallelUpdateStrategy(2);
+            try {
+                GameSystemManager systems = new GameSystemManager();
+                systems.setSystemUpdateStrategy(strategy);
+                systems.setSystemTiming(new SystemTiming());
+                def a = new DepSystem("a", [], ["x"]);
+                def b = new DepSystem("b", [], ["y"]);
+                systems.addSystem(a);
+                systems.addSystem(b);
+                systems.initialize();
+                systems.start();
+                for( int i = 0; i < 5; i++ ) {
+                    systems.step(1000);
+                }
+                assert a.updates == 5;
+                assert b.updates == 5;
+
+                // The manager's own systems stay exclusive
+                def stages = strategy.getStages();
+                assert stages.last() == [a, b];
+                assert stages.contains([systems.get(TaskDispatcher.class)]);
+                systems.stop();
+                systems.terminate();
+            } finally {
+                strategy.getPool().shutdownNow();
+            }
+        }
+    }
+
+    static List<List<GameSystem>> stages( GameSystem... systems ) {
+        ParallelUpdateStrategy strategy = new ParallelUpdateStrategy(1);
+        try {
+            strategy.update(systems, new SimTime(), null);
+            return strategy.getStages();
+        } finally {
+            strategy.getPool().shutdownNow();
+        }
+    }
+
+    static class CountingSystem extends AbstractGameSystem {
+        String name;
+        volatile int updates;
+        volatile Closure onUpdate;
+
+        CountingSystem( String name ) {
+            this.name = name;
+        }
+
+        protected void initialize() {
+        }
+
+        public void update( SimTime time ) {
+            onUpdate?.call();
+            updates++;
+        }
+
+        protected void terminate() {
+        }
+
+        public String toString() {
+            return name;
+        }
+    }
+
+    static class DepSystem extends CountingSystem implements SystemDependencies {
+        Collection<?> reads;
+        Collection<?> writes;
+
+        DepSystem( String name, Collection<?> reads, Collection<?> writes ) {
+            super(name);
+            this.reads = reads;
+            this.writes = writes;
+        }
+
+        public Collection<?> getReads() {
+            return reads;
+        }
+
+        public Collection<?> getWrites() {
+            return writes;
+        }
+    }
+}
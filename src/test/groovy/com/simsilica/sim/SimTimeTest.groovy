@@ -0,0 +1,95 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class SimTimeTests {
+
+    static class StepTest extends GroovyTestCase {
+        public void testStepExactTime() {
+            SimTime time = new SimTime();
+            time.step(1000);
+            time.step(1000);
+            assert time.getFrame() == 2;
+            assert time.getTime() == 2000;
+            assert time.getTpf() == 1000 * time.getTimeScale();
+        }
+
+        public void testUpdateAfterFirstStep() {
+            SimTime time = new SimTime();
+            time.step(1000);
+
+            // There was no real time reference to measure from yet
+            time.update(5000000);
+            assert time.getTime() == 1000;
+            assert time.getTpf() == 0;
+
+            time.update(5000500);
+            assert time.getTime() == 1500;
+        }
+
+        public void testUpdateAfterStep() {
+            SimTime time = new SimTime();
+            time.update(10000);
+            time.update(11000);
+            time.step(1000);
+
+            // The real time reference moved with the step
+            time.update(12500);
+            assert time.getTime() == 2500;
+        }
+
+        public void testStepAfterSetCurrentTime() {
+            SimTime time = new SimTime();
+            time.update(10000);
+            time.update(11000);
+            time.setCurrentTime(50000);
+            time.step(1000);
+            assert time.getTime() == 51000;
+            assert time.getUnlockedTime(99999) == 51000;
+
+            time.update(99999);
+            assert time.getTime() == 51000;
+            time.update(100999);
+            assert time.getTime() == 52000;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.concurrent.*;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class SystemTimingTests {
+
+    static class ConcurrencyTest extends GroovyTestCase {
+        public void testConcurrentTracking() {
+            SystemTiming timing = new SystemTiming(10);
+            timing.setTimingCheckThreshold(0);
+            int threads = 4;
+            int perThread = 2000;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future> futures = (0..<threads).collect { t ->
+                    executor.submit({
+                        for( int i = 0; i < perThread; i++ ) {
+                            GameSystem sys = new CountingSystem("t" + t + "-" + i);
+                            timing.trackUpdate(sys).close();
+                        }
+                    } as Callable)
+                };
+
+                // Reading everything while new systems are being tracked
+                while( !futures.every { it.isDone() } ) {
+                    timing.getAllTimingInfo().size();
+                    timing.getStatsSnapshot().size();
+                    timing.startFrame();
+                    timing.endFrame();
+                }
+                futures.each { it.get() };
+                assert timing.getAllTimingInfo().size() == threads * perThread;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        public void testSnapshotOrder() {
+            SystemTiming timing = new SystemTiming();
+            def systems = (0..<5).collect { new CountingSystem("s" + it) };
+            systems.each { timing.trackUpdate(it).close() };
+            Map<GameSystem, SystemTiming.TimingInfo> info = timing.getAllTimingInfo();
+            assert info.keySet().toList() == systems;
+
+            // Not affected by systems tracked later
+            timing.trackUpdate(new CountingSystem("late")).close();
+            assert info.size() == 5;
+            shouldFail(UnsupportedOperationException) {
+                info.clear();
+            }
+        }
+    }
+
+    static class CountingSystem extends AbstractGameSystem {
+        String name;
+
+        CountingSystem( String name ) {
+            this.name = name;
+        }
+
+        protected void initialize() {
+        }
+
+        public void update( SimTime time ) {
+        }
+
+        protected void terminate() {
+        }
+
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.sim;
+
+import java.util.concurrent.*;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class TaskDispatcherTests {
+
+    static class OverflowTest extends GroovyTestCase {
+        public void testOverflowKeepsOrder() {
+            GameSystemManager systems = manager(new TaskDispatcher(4));
+            TaskDispatcher dispatcher = systems.get(TaskDispatcher.class);
+            List<Integer> runs = [];
+            for( int i = 0; i < 10; i++ ) {
+                dispatcher.execute(new RecordTask(runs, i));
+            }
+            assert dispatcher.getQueueDepth() == 10;
+            assert dispatcher.getOverflowCount() == 6;
+
+            systems.step(1000);
+            assert runs == (0..9).toList();
+            assert dispatcher.getQueueDepth() == 0;
+            assert dispatcher.getLastExecutedCount() == 10;
+
+            // Back to using the ring buffer once the overflow has drained
+            dispatcher.execute(new RecordTask(runs, 10));
+            assert dispatcher.getOverflowCount() == 6;
+            systems.step(1000);
+            assert runs == (0..10).toList();
+            assert dispatcher.getExecutedCount() == 11;
+        }
+
+        public void testOverflowWhileDraining() {
+            GameSystemManager systems = manager(new TaskDispatcher(4));
+            TaskDispatcher dispatcher = systems.get(TaskDispatcher.class);
+            dispatcher.setMaxTasksPerFrame(3);
+            List<Integer> runs = [];
+            for( int i = 0; i < 6; i++ ) {
+                dispatcher.execute(new RecordTask(runs, i));
+            }
+            systems.step(1000);
+            assert runs == [0, 1, 2];
+
+            // Still overflowing so new tasks must wait behind the old ones
+            // even though there is room in the ring buffer again.
+            for( int i = 6; i < 9; i++ ) {
+                dispatcher.execute(new RecordTask(runs, i));
+            }
+            systems.step(1000);
+            systems.step(1000);
+            assert runs == (0..8).toList();
+        }
+    }
+
+    static class BudgetTest extends GroovyTestCase {
+        public void testMaxTasksPerFrame() {
+            GameSystemManager systems = manager(new TaskDispatcher());
+            TaskDispatcher dispatcher = systems.get(TaskDispatcher.class);
+            dispatcher.setMaxTasksPerFrame(3);
+            List<Integer> runs = [];
+            for( int i = 0; i < 10; i++ ) {
+                dispatcher.execute(new RecordTask(runs, i));
+            }
+            List<Integer> perFrame = [];
+            for( int i = 0; i < 5; i++ ) {
+                systems.step(1000);
+                perFrame << dispatcher.getLastExecutedCount();
+            }
+            assert perFrame == [3, 3, 3, 1, 0];
+            assert runs == (0..9).toList();
+        }
+
+        public void testMaxNanosPerFrame() {
+            GameSystemManager systems = manager(new TaskDispatcher());
+            TaskDispatcher dispatcher = systems.get(TaskDispatcher.class);
+            List<Integer> runs = [];
+
+            // No time at all still runs one task per frame
+            dispatcher.setMaxNanosPerFrame(0);
+            for( int i = 0; i < 3; i++ ) {
+                dispatcher.execute(new RecordTask(runs, i));
+            }
+            systems.step(1000);
+            assert dispatcher.getLastExecutedCount() == 1;
+            systems.step(1000);
+            systems.step(1000);
+            assert runs == [0, 1, 2];
+
+            // Tasks that take 30 ms with a 45 ms budget: the first leaves time
+            // for another, the second uses it up.
+            dispatcher.setMaxNanosPerFrame(TimeUnit.MILLISECONDS.toNanos(45));
+            for( int i = 0; i < 4; i++ ) {
+                dispatcher.execute(new RecordTask(runs, i + 3, 30));
+            }
+            systems.step(1000);
+            assert dispatcher.getLastExecutedCount() == 2;
+            assert dispatcher.getLastUpdateNanos() >= TimeUnit.MILLISECONDS.toNanos(60);
+            systems.step(1000);
+            assert dispatcher.getLastExecutedCount() == 2;
+            assert runs == (0..6).toList();
+        }
+    }
+
+    static class KeyedTest extends GroovyTestCase {
+        public void testLastOneWins() {
+            GameSystemManager systems = manager(new TaskDispatcher());
+            TaskDispatcher dispatcher = systems.get(TaskDispatcher.class);
+            List<Integer> runs = [];
+            for( int i = 0; i < 5; i++ ) {
+                dispatcher.execute("a", new RecordTask(runs, i));
+            }
+            dispatcher.execute("b", new RecordTask(runs, 100));
+            assert dispatcher.getQueueDepth() == 2;
+            assert dispatcher.getCoalescedCount() == 4;
+
+            systems.step(1000);
+            assert runs == [4, 100];
+
+            // The key is free again once its task has run
+            dispatcher.execute("a", new RecordTask(runs, 5));
+            systems.step(1000);
+            assert runs == [4, 100, 5];
+            assert dispatcher.getCoalescedCount() == 4;
+        }
+
+        public void testNullKey() {
+            TaskDispatcher dispatcher = new TaskDispatcher();
+            shouldFail(IllegalArgumentException) {
+                dispatcher.execute(null, new RecordTask([], 0));
+            }
+            assert dispatcher.getQueueDepth() == 0;
+        }
+    }
+
+    static class EnqueueTest extends GroovyTestCase {
+        public void testFutureResult() {
+            GameSystemManager systems = manager(new TaskDispatcher());
+            TaskDispatcher dispatcher = systems.get(TaskDispatcher.class);
+            Future<String> future = dispatcher.enqueue({ "done" } as Callable<String>);
+            assert !future.isDone();
+            systems.step(1000);
+            assert future.isDone();
+            assert future.get() == "done";
+        }
+
+        public void testCancelledWhileReplaying() {
+            TaskDispatcher dispatcher = new TaskDispatcher();
+            dispatcher.setReplaying(true);
+            Future<String> first = dispatcher.enqueue({ "first" } as Callable<String>);
+            Future<String> second = dispatcher.enqueue({ "second" } as Callable<String>);
+            assert first.isCancelled();
+            assert second.isCancelled();
+            assert dispatcher.getQueueDepth() == 0;
+            assert dispatcher.getSuppressedCount() == 2;
+        }
+    }
+
+    static GameSystemManager manager( TaskDispatcher dispatcher ) {
+        GameSystemManager result = new GameSystemManager();
+        result.register(TaskDispatcher.class, dispatcher);
+        result.initialize();
+        result.start();
+        return result;
+    }
+
+    static class RecordTask implements Runnable {
+        List<Integer> runs;
+        int value;
+        long sleepMillis;
+
+        RecordTask( List<Integer> runs, int value, long sleepMillis = 0 ) {
+            this.runs = runs;
+            this.value = value;
+            this.sleepMillis = sleepMillis;
+        }
+
+        public void run() {
+            if( sleepMillis > 0 ) {
+                Thread.sleep(sleepMillis);
+            }
+            runs << value;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.thread;
+
+import java.util.concurrent.*;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class MpscRingBufferTests {
+
+    static class CapacityTest extends GroovyTestCase {
+        public void testCapacityRounding() {
+            assert new MpscRingBuffer<String>(0).getCapacity() == 2;
+            assert new MpscRingBuffer<String>(2).getCapacity() == 2;
+            assert new MpscRingBuffer<String>(3).getCapacity() == 4;
+            assert new MpscRingBuffer<String>(4).getCapacity() == 4;
+            assert new MpscRingBuffer<String>(1000).getCapacity() == 1024;
+        }
+
+        public void testFull() {
+            MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+            for( int i = 0; i < 4; i++ ) {
+                assert buffer.offer(i);
+            }
+            assert buffer.size() == 4;
+            assert !buffer.offer(4);
+            assert buffer.size() == 4;
+
+            // Taking one out makes room for exactly one more
+            assert buffer.poll() == 0;
+            assert buffer.offer(4);
+            assert !buffer.offer(5);
+            assert (1..4).collect { buffer.poll() } == [1, 2, 3, 4];
+            assert buffer.poll() == null;
+            assert buffer.isEmpty();
+        }
+
+        public void testWrapAround() {
+            MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+            int next = 0;
+            int expected = 0;
+            for( int round = 0; round < 100; round++ ) {
+                for( int i = 0; i < 3; i++ ) {
+                    assert buffer.offer(next++);
+                }
+                for( int i = 0; i < 3; i++ ) {
+                    assert buffer.poll() == expected++;
+                }
+                assert buffer.isEmpty();
+            }
+        }
+
+        public void testNullRejected() {
+            MpscRingBuffer<String> buffer = new MpscRingBuffer<>(4);
+            shouldFail(IllegalArgumentException) {
+                buffer.offer(null);
+            }
+            assert buffer.isEmpty();
+        }
+    }
+
+    static class ConcurrencyTest extends GroovyTestCase {
+        public void testMultipleProducers() {
+            int producers = 4;
+            int perProducer = 20000;
+            MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(64);
+            ExecutorService executor = Executors.newFixedThreadPool(producers);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                for( int p = 0; p < producers; p++ ) {
+                    final int producer = p;
+                    executor.submit({
+                        start.await();
+                        for( int i = 0; i < perProducer; i++ ) {
+                            long[] item = [producer, i] as long[];
+                            while( !buffer.offer(item) ) {
+                                Thread.yield();
+                            }
+                        }
+                    } as Callable);
+                }
+                start.countDown();
+
+                // Everything arrives exactly once and in order per producer
+                int[] next = new int[producers];
+                int received = 0;
+                long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+                while( received < producers * perProducer ) {
+                    assert System.nanoTime() < end : "Timed out after:" + received;
+                    long[] item = buffer.poll();
+                    if( item == null ) {
+                        Thread.yield();
+                        continue;
+                    }
+                    int producer = (int)item[0];
+                    assert item[1] == next[producer];
+                    next[producer]++;
+                    received++;
+                }
+                assert next.every { it == perProducer };
+                assert buffer.poll() == null;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
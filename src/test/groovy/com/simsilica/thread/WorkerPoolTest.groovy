@@ -0,0 +1,555 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.simsilica.thread;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ *
+ *
+ *  @author    Paul Speed
+ */
+public class WorkerPoolTests {
+
+    static void finishAll( WorkerPool pool ) {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while( pool.isBusy() ) {
+            assert System.nanoTime() < end : "Timed out waiting for jobs";
+            pool.update(0.0);
+            Thread.sleep(1);
+        }
+        pool.update(0.0);
+    }
+
+    /**
+     *  Holds every worker thread but one and returns the held jobs.  The
+     *  last job is the one to release so that a single worker is left
+     *  pulling from the queues.
+     */
+    static List<TestJob> holdWorkers( WorkerPool pool ) {
+        List<TestJob> held = new ArrayList<>();
+        for( int i = 0; i < pool.getPoolSize(); i++ ) {
+            TestJob job = new TestJob("held" + i);
+            job.hold();
+            pool.execute(job, -1);
+            job.awaitStarted();
+            held.add(job);
+        }
+        return held;
+    }
+
+    static void awaitFinishing( WorkerPool pool, int count ) {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while( pool.getFinishingJobCount() < count ) {
+            assert System.nanoTime() < end : "Timed out waiting for workers";
+            Thread.sleep(1);
+        }
+    }
+
+    static void awaitEvents( List<String> events, int count ) {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while( events.size() < count ) {
+            assert System.nanoTime() < end : "Timed out waiting for events:" + events;
+            Thread.sleep(1);
+        }
+    }
+
+    static class RerunTest extends GroovyTestCase {
+        public void testExecuteWhileRunning() {
+            WorkerPool pool = new WorkerPool(4);
+            try {
+                TestJob job = new TestJob("job");
+                job.hold();
+                pool.execute(job);
+                job.awaitStarted();
+
+                // Executing it again while it runs marks it dirty
+                for( int i = 0; i < 10; i++ ) {
+                    pool.execute(job);
+                }
+                assert pool.isQueued(job);
+                assert pool.getQueuedJobCount() == 1;
+
+                job.release();
+                finishAll(pool);
+
+                assert job.runs.get() == 2;
+                assert job.finished.get() == 2;
+                assert job.maxInside.get() == 1;
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+
+        public void testCancelRerun() {
+            WorkerPool pool = new WorkerPool(4);
+            try {
+                TestJob job = new TestJob("job");
+                job.hold();
+                pool.execute(job);
+                job.awaitStarted();
+
+                pool.execute(job);
+                assert pool.cancel(job);
+                assert !pool.isQueued(job);
+
+                job.release();
+                finishAll(pool);
+
+                assert job.runs.get() == 1;
+                assert job.finished.get() == 1;
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+
+        public void testRunAgainAfterError() {
+            WorkerPool pool = new WorkerPool(1);
+            try {
+                TestJob job = new TestJob("job");
+                job.onWorker = { throw new Error("Expected test error") };
+                pool.execute(job);
+                finishAll(pool);
+                assert job.runs.get() == 1;
+                assert job.finished.get() == 0;
+
+                // The failed run must not leave the job stuck as running
+                job.onWorker = null;
+                pool.execute(job);
+                finishAll(pool);
+                assert job.runs.get() == 2;
+                assert job.finished.get() == 1;
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+    }
+
+    static class DependencyTest extends GroovyTestCase {
+        public void testPipelineOrder() {
+            WorkerPool pool = new WorkerPool(4);
+            try {
+                List<String> events = Collections.synchronizedList(new ArrayList<String>());
+                TestJob density = new TestJob("density", events);
+                TestJob mesh = new TestJob("mesh", events);
+                TestJob shape = new TestJob("shape", events);
+                TestJob attach = new TestJob("attach", events);
+
+                density.hold();
+                pool.execute(density);
+                pool.executeAfter(mesh, density);
+                pool.executeAfter(shape, mesh);
+                pool.executeAfter(attach, mesh, shape);
+                density.awaitStarted();
+                assert pool.getQueuedJobCount() == 3;
+
+                density.release();
+                finishAll(pool);
+
+                assert events == ["worker:density", "worker:mesh", "worker:shape", "worker:attach",
+                                  "update:density", "update:mesh", "update:shape", "update:attach"];
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+
+        public void testFailedPrerequisite() {
+            WorkerPool pool = new WorkerPool(4);
+            try {
+                List<String> events = Collections.synchronizedList(new ArrayList<String>());
+                TestJob good = new TestJob("good", events);
+                TestJob bad = new TestJob("bad", events);
+                TestJob dependent = new TestJob("dependent", events);
+                TestJob next = new TestJob("next", events);
+
+                bad.hold();
+                bad.onWorker = { throw new RuntimeException("Expected test error") };
+                pool.execute(good);
+                pool.execute(bad);
+                pool.executeAfter(dependent, good, bad);
+                pool.executeAfter(next, dependent);
+
+                bad.release();
+                finishAll(pool);
+
+                // The dependents are dropped and the surviving prerequisite
+                // is still finished on its own.
+                assert dependent.runs.get() == 0;
+                assert next.runs.get() == 0;
+                assert events.contains("update:good");
+                assert !events.contains("update:bad");
+                assert !pool.isQueued(dependent);
+                assert !pool.isQueued(next);
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+
+        public void testCanceledPrerequisite() {
+            WorkerPool pool = new WorkerPool(1);
+            try {
+                TestJob blocker = new TestJob("blocker");
+                TestJob prereq = new TestJob("prereq");
+                TestJob dependent = new TestJob("dependent");
+
+                // Keep the only worker busy so that prereq stays queued
+                blocker.hold();
+                pool.execute(blocker);
+                blocker.awaitStarted();
+                pool.execute(prereq);
+                pool.executeAfter(dependent, prereq);
+
+                assert pool.cancel(prereq);
+                assert !pool.isQueued(dependent);
+
+                blocker.release();
+                finishAll(pool);
+                assert prereq.runs.get() == 0;
+                assert dependent.runs.get() == 0;
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+    }
+
+    static class BlockingTest extends GroovyTestCase {
+        public void testBlockingLimit() {
+            WorkerPool pool = new WorkerPool(2, 3);
+            try {
+                AtomicInteger inside = new AtomicInteger();
+                AtomicInteger maxInside = new AtomicInteger();
+                List<TestBlockingJob> jobs = new ArrayList<>();
+                for( int i = 0; i < 20; i++ ) {
+                    TestBlockingJob job = new TestBlockingJob(inside, maxInside);
+                    jobs.add(job);
+                    pool.execute(job);
+                }
+
+                // CPU-bound jobs still run while the blocking jobs are waiting
+                TestJob cpu = new TestJob("cpu");
+                pool.execute(cpu);
+                cpu.awaitStarted();
+
+                finishAll(pool);
+                assert maxInside.get() == 3;
+                assert jobs.every { it.finished };
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+    }
+
+    static class ShardTest extends GroovyTestCase {
+        public void testPriorityOrderAcrossShards() {
+            WorkerPool pool = new WorkerPool(4);
+            try {
+                List<TestJob> held = holdWorkers(pool);
+                List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+                // Queued round-robin so that each shard gets a mix of priorities
+                int[] priorities = [7, 3, 11, 0, 5, 9, 1, 10, 2, 8, 6, 4];
+                for( int priority : priorities ) {
+                    pool.execute(new TestJob("p" + priority, events), priority);
+                }
+                assert pool.getQueuedJobCount() == priorities.length;
+
+                held.last().release();
+                awaitEvents(events, priorities.length);
+
+                assert events == (0..11).collect { "worker:p" + it };
+
+                held.each { it.release() };
+                finishAll(pool);
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+
+        public void testReprioritizeQueued() {
+            WorkerPool pool = new WorkerPool(2);
+            try {
+                List<TestJob> held = holdWorkers(pool);
+                List<String> events = Collections.synchronizedList(new ArrayList<String>());
+                TestJob a = new TestJob("a", events);
+                TestJob b = new TestJob("b", events);
+                TestJob c = new TestJob("c", events);
+                TestJob d = new TestJob("d", events);
+                pool.execute(a, 1);
+                pool.execute(b, 2);
+                pool.execute(c, 3);
+                pool.execute(d, 4);
+
+                // Move one job up and another down without queuing them twice
+                pool.execute(d, 0);
+                pool.execute(a, 5);
+                assert pool.getQueuedJobCount() == 4;
+
+                held.last().release();
+                awaitEvents(events, 4);
+                assert events == ["worker:d", "worker:b", "worker:c", "worker:a"];
+
+                held.each { it.release() };
+                finishAll(pool);
+                assert [a, b, c, d].every { it.runs.get() == 1 && it.finished.get() == 1 };
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+
+        public void testCancelThenExecute() {
+            WorkerPool pool = new WorkerPool(2);
+            try {
+                List<TestJob> held = holdWorkers(pool);
+                List<String> events = Collections.synchronizedList(new ArrayList<String>());
+                TestJob first = new TestJob("first", events);
+                TestJob job = new TestJob("job", events);
+                TestJob last = new TestJob("last", events);
+                pool.execute(first, 1);
+                pool.execute(job, 2);
+                pool.execute(last, 3);
+
+                assert pool.cancel(job);
+                assert !pool.isQueued(job);
+                assert pool.getQueuedJobCount() == 2;
+                assert !pool.cancel(job);
+
+                // Executing it again queues a fresh run at the new priority
+                pool.execute(job, 4);
+                assert pool.isQueued(job);
+                assert pool.getQueuedJobCount() == 3;
+
+                held.last().release();
+                awaitEvents(events, 3);
+                assert events == ["worker:first", "worker:last", "worker:job"];
+
+                held.each { it.release() };
+                finishAll(pool);
+                assert job.runs.get() == 1;
+                assert job.finished.get() == 1;
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+    }
+
+    static class UpdateBudgetTest extends GroovyTestCase {
+        public void testBudgetCutOff() {
+            WorkerPool pool = new WorkerPool(2);
+            try {
+                List<TestJob> jobs = (0..<5).collect { new TestJob("job" + it) };
+                jobs.each { it.updateMillis = 40; pool.execute(it) };
+                awaitFinishing(pool, 5);
+
+                // The first job sets the estimate at 40 ms so a second still
+                // fits in 100 ms but a third would not.
+                assert pool.update(100, TimeUnit.MILLISECONDS) == 2;
+                assert pool.getFinishingJobCount() == 3;
+                assert jobs.count { it.finished.get() == 1 } == 2;
+
+                assert pool.update(100, TimeUnit.MILLISECONDS) == 2;
+                assert pool.update(100, TimeUnit.MILLISECONDS) == 1;
+                assert pool.update(100, TimeUnit.MILLISECONDS) == 0;
+                assert jobs.every { it.finished.get() == 1 };
+                assert pool.getOverdueCount() == 0;
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+
+        public void testAtLeastOneJobFinished() {
+            WorkerPool pool = new WorkerPool(2);
+            try {
+                TestJob slow = new TestJob("slow");
+                TestJob fast = new TestJob("fast");
+                slow.updateMillis = 20;
+                pool.execute(slow, 0);
+                pool.execute(fast, 1);
+                awaitFinishing(pool, 2);
+
+                // The slow job is run even though it blows the budget and
+                // then there is no time left for the other one.
+                assert pool.update(1, TimeUnit.MILLISECONDS) == 1;
+                assert slow.finished.get() == 1;
+                assert fast.finished.get() == 0;
+                assert pool.getOverdueCount() == 1;
+
+                assert pool.update(1, TimeUnit.MILLISECONDS) == 1;
+                assert fast.finished.get() == 1;
+                assert pool.getOverdueCount() == 1;
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+
+        public void testPriorityOrder() {
+            WorkerPool pool = new WorkerPool(1);
+            try {
+                List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+                // Completed by the worker in the opposite order of priority
+                int count = 0;
+                for( int priority = 5; priority >= 0; priority-- ) {
+                    pool.execute(new TestJob("p" + priority, events), priority);
+                    awaitFinishing(pool, ++count);
+                }
+                events.clear();
+
+                assert pool.update(10, TimeUnit.SECONDS) == 6;
+                assert events == (0..5).collect { "update:p" + it };
+            } finally {
+                pool.shutdownNow(true);
+            }
+        }
+    }
+
+    static class ShutdownTest extends GroovyTestCase {
+        public void testInterruptedJobReleased() {
+            WorkerPool pool = new WorkerPool(2);
+            TestJob job = new TestJob("job");
+            TestJob dependent = new TestJob("dependent");
+            job.hold();
+            pool.execute(job);
+            job.awaitStarted();
+            pool.executeAfter(dependent, job);
+            pool.execute(job);
+
+            // The held job is interrupted and never completes
+            pool.shutdownNow(true);
+
+            assert !pool.isRunning();
+            assert !pool.isBusy();
+            assert pool.getActiveJobCount() == 0;
+            assert pool.update(0.0) == 0;
+            assert job.runs.get() == 1;
+            assert dependent.runs.get() == 0;
+        }
+
+        public void testExecuteAfterShutdown() {
+            WorkerPool pool = new WorkerPool(2);
+            pool.shutdownNow(true);
+            shouldFail(RejectedExecutionException) {
+                pool.execute(new TestJob("job"));
+            }
+        }
+    }
+
+    static class TestJob implements Job {
+        final String name;
+        final List<String> events;
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicInteger finished = new AtomicInteger();
+        final AtomicInteger inside = new AtomicInteger();
+        final AtomicInteger maxInside = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile CountDownLatch gate = new CountDownLatch(0);
+        volatile Closure onWorker;
+        volatile long updateMillis;
+
+        public TestJob( String name, List<String> events = null ) {
+            this.name = name;
+            this.events = events;
+        }
+
+        public void hold() {
+            gate = new CountDownLatch(1);
+        }
+
+        public void release() {
+            gate.countDown();
+        }
+
+        public void awaitStarted() {
+            assert started.await(10, TimeUnit.SECONDS);
+        }
+
+        public void runOnWorker() {
+            int count = inside.incrementAndGet();
+            maxInside.set(Math.max(maxInside.get(), count));
+            try {
+                runs.incrementAndGet();
+                started.countDown();
+                gate.await();
+                events?.add("worker:" + name);
+                onWorker?.call();
+            } finally {
+                inside.decrementAndGet();
+            }
+        }
+
+        public double runOnUpdate() {
+            if( updateMillis > 0 ) {
+                Thread.sleep(updateMillis);
+            }
+            finished.incrementAndGet();
+            events?.add("update:" + name);
+            return 1;
+        }
+
+        public String toString() {
+            return "TestJob[" + name + "]";
+        }
+    }
+
+    static class TestBlockingJob implements BlockingJob {
+        final AtomicInteger inside;
+        final AtomicInteger maxInside;
+        volatile boolean finished;
+
+        public TestBlockingJob( AtomicInteger inside, AtomicInteger maxInside ) {
+            this.inside = inside;
+            this.maxInside = maxInside;
+        }
+
+        public void runOnWorker() {
+            int count = inside.incrementAndGet();
+            synchronized( maxInside ) {
+                maxInside.set(Math.max(maxInside.get(), count));
+            }
+            try {
+                Thread.sleep(20);
+            } finally {
+                inside.decrementAndGet();
+            }
+        }
+
+        public double runOnUpdate() {
+            finished = true;
+            return 0;
+        }
+    }
+}